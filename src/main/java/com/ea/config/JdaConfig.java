@@ -1,19 +1,64 @@
 package com.ea.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.EnumSet;
+
 @Configuration
 public class JdaConfig {
 
     @Value("${discord.token}")
     private String token;
+    @Value("${discord.lean-cache}")
+    private boolean leanCache;
 
     @Bean
-    public JDA jda() {
-        return JDABuilder.createDefault(token).build();
+    public JDA jda(MeterRegistry meterRegistry) {
+        JDA jda = leanCache ? buildLean() : JDABuilder.createDefault(token).build();
+        registerCacheGauges(jda, meterRegistry);
+        return jda;
+    }
+
+    /**
+     * The bot only resolves text channels by id, answers slash commands and sets its presence: guilds and their
+     * channels come with the always-on guild events, slash commands carry their member, so no intent, member, user
+     * or other cache is needed.
+     */
+    private JDA buildLean() {
+        return JDABuilder.createLight(token, EnumSet.noneOf(GatewayIntent.class))
+                .setMemberCachePolicy(MemberCachePolicy.NONE)
+                .setChunkingFilter(ChunkingFilter.NONE)
+                .disableCache(EnumSet.allOf(CacheFlag.class))
+                .build();
+    }
+
+    /**
+     * Sizes of the JDA caches, to compare the heap of both modes as the number of guilds grows together with the
+     * jvm.memory.used metric.
+     */
+    private void registerCacheGauges(JDA jda, MeterRegistry meterRegistry) {
+        Gauge.builder("jda.cache.size", jda, api -> api.getGuildCache().size())
+                .tag("cache", "guilds")
+                .register(meterRegistry);
+        Gauge.builder("jda.cache.size", jda, api -> api.getTextChannelCache().size())
+                .tag("cache", "text_channels")
+                .register(meterRegistry);
+        Gauge.builder("jda.cache.size", jda, api -> api.getUserCache().size())
+                .tag("cache", "users")
+                .register(meterRegistry);
+        Gauge.builder("jda.cache.size", jda,
+                        api -> api.getGuildCache().stream().mapToLong(guild -> guild.getMemberCache().size()).sum())
+                .tag("cache", "members")
+                .register(meterRegistry);
     }
 }
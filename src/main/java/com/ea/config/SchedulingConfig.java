@@ -0,0 +1,32 @@
+package com.ea.config;
+
+import com.ea.services.core.AdaptiveTrigger;
+import com.ea.services.core.PresenceState;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class SchedulingConfig {
+
+    @Bean
+    public AdaptiveTrigger eventPollingTrigger(PresenceState presenceState, MeterRegistry meterRegistry,
+                                               @Value("${services.polling.events.min-delay}") long minDelay,
+                                               @Value("${services.polling.events.max-delay}") long maxDelay,
+                                               @Value("${services.polling.activity-window}") long activityWindow) {
+        return new AdaptiveTrigger("events", Duration.ofMillis(minDelay), Duration.ofMillis(maxDelay),
+                Duration.ofMillis(activityWindow), () -> presenceState.countPlayersInGame() > 0, meterRegistry);
+    }
+
+    @Bean
+    public AdaptiveTrigger statusUpdateTrigger(PresenceState presenceState, MeterRegistry meterRegistry,
+                                               @Value("${services.polling.status.min-delay}") long minDelay,
+                                               @Value("${services.polling.status.max-delay}") long maxDelay,
+                                               @Value("${services.polling.activity-window}") long activityWindow) {
+        return new AdaptiveTrigger("status", Duration.ofMillis(minDelay), Duration.ofMillis(maxDelay),
+                Duration.ofMillis(activityWindow), () -> presenceState.countPlayersOnline() > 0, meterRegistry);
+    }
+}
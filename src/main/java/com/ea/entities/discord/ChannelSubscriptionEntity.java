@@ -34,6 +34,10 @@ public class ChannelSubscriptionEntity {
     @Column(name = "game_genre", nullable = false)
     private GameGenre gameGenre;
 
+    // Logs and scoreboards are sent through this webhook instead of as the bot when set
+    @Column(name = "webhook_url")
+    private String webhookUrl;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
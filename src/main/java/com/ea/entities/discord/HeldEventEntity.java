@@ -0,0 +1,46 @@
+package com.ea.entities.discord;
+
+import com.ea.enums.EventType;
+import com.ea.enums.GameGenre;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "HELD_EVENT", schema = "discord")
+public class HeldEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Persona connection or game connection ID
+    @Column(name = "event_id", nullable = false)
+    private long eventId;
+
+    @Column(name = "event_time", nullable = false)
+    private LocalDateTime eventTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private EventType eventType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "game_genre", nullable = false)
+    private GameGenre gameGenre;
+
+    @Column(name = "persona")
+    private String persona;
+
+    @Column(name = "game_title")
+    private String gameTitle;
+
+    @Column(name = "game_name")
+    private String gameName;
+}
@@ -0,0 +1,29 @@
+package com.ea.entities.discord;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "JOB_LEASE", schema = "discord")
+public class JobLeaseEntity {
+
+    @Id
+    @Column(name = "job_name")
+    private String jobName;
+
+    @Column(name = "owner_id")
+    private String ownerId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
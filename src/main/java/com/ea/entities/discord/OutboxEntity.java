@@ -0,0 +1,75 @@
+package com.ea.entities.discord;
+
+import com.ea.enums.GameGenre;
+import com.ea.enums.OutboxMessageType;
+import com.ea.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "OUTBOX", schema = "discord")
+public class OutboxEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "channel_id", nullable = false)
+    private String channelId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "message_type", nullable = false)
+    private OutboxMessageType messageType;
+
+    @Column(name = "content")
+    private String content;
+
+    // Newline-separated paths of the rendered images
+    @Column(name = "image_paths")
+    private String imagePaths;
+
+    // Newline-separated attachment URLs of the images once uploaded to the fan-out channel
+    @Column(name = "image_urls")
+    private String imageUrls;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    // Node sending the entry while IN_FLIGHT, and end of its claim
+    @Column(name = "locked_by")
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "game_genre")
+    private GameGenre gameGenre;
+
+    // Timestamp of the oldest DB event behind the notification (login, leave, game end), null for replays
+    @Column(name = "source_time")
+    private LocalDateTime sourceTime;
+}
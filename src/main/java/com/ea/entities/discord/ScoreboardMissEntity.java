@@ -0,0 +1,30 @@
+package com.ea.entities.discord;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "SCOREBOARD_MISS", schema = "discord")
+public class ScoreboardMissEntity {
+
+    @Id
+    @Column(name = "game_id")
+    private Long gameId;
+
+    // Ticks whose deadline the scoreboard of the game missed
+    @Column(name = "misses", nullable = false)
+    private int misses;
+
+    @Column(name = "last_miss_at", nullable = false)
+    private LocalDateTime lastMissAt;
+}
@@ -8,6 +8,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 
 @Getter
@@ -27,8 +29,11 @@ public class StatusMessageEntity {
     @Column(name = "channel_id", nullable = false)
     private String channelId;
 
-    @Column(name = "message_id")
-    private String messageId;
+    // Messages of the status in channel order, the content is split when it exceeds the Discord limit
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "STATUS_MESSAGE_PAGE", schema = "discord", joinColumns = @JoinColumn(name = "status_message_id"))
+    @OrderColumn(name = "page_index")
+    private List<StatusMessagePage> pages = new ArrayList<>();
 
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
@@ -0,0 +1,26 @@
+package com.ea.entities.discord;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One Discord message of a status spread over several messages.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class StatusMessagePage {
+
+    @Column(name = "message_id")
+    private String messageId;
+
+    // SHA-256 of the page content last sent, without the timestamp footer
+    @Column(name = "content_hash")
+    private String contentHash;
+}
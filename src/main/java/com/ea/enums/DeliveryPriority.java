@@ -0,0 +1,19 @@
+package com.ea.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Discord traffic classes, from the most to the least important. Each class leaves a share of the global rate limit
+ * bucket to the classes above it.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum DeliveryPriority {
+    SCOREBOARD(0.0),
+    LOG(0.2),
+    STATUS(0.5);
+
+    // Share of the global bucket this class cannot use
+    private final double reserve;
+}
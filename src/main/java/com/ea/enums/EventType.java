@@ -0,0 +1,35 @@
+package com.ea.enums;
+
+import lombok.Getter;
+
+/**
+ * Kinds of player events sent to the LOGS feeds.
+ * The priority orders events that happened at the same time: connections first, disconnections last.
+ */
+@Getter
+public enum EventType {
+    CONNECTED(1),
+    LEFT_GAME(2),
+    JOINED_GAME(3),
+    DISCONNECTED(4);
+
+    private final int priority;
+
+    EventType(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Get the event type that cancels this one out (a disconnect for a connect, a leave for a join...).
+     *
+     * @return the opposite event type
+     */
+    public EventType opposite() {
+        return switch (this) {
+            case CONNECTED -> DISCONNECTED;
+            case DISCONNECTED -> CONNECTED;
+            case JOINED_GAME -> LEFT_GAME;
+            case LEFT_GAME -> JOINED_GAME;
+        };
+    }
+}
@@ -3,6 +3,8 @@ package com.ea.enums;
 import lombok.Getter;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Represents individual games supported by the bot.
@@ -62,6 +64,17 @@ public enum Game {
     private final String serverVers; // Server VERS code (null if same as client)
     private final GameGenre gameGenre;
 
+    // VERS lookups run for every event and presence row, the first game declared for a code wins
+    private static final Map<String, Game> GAMES_BY_VERS = new HashMap<>();
+    private static final Map<String, Game> GAMES_BY_SERVER_VERS = new HashMap<>();
+
+    static {
+        for (Game game : values()) {
+            GAMES_BY_VERS.putIfAbsent(game.vers, game);
+            GAMES_BY_SERVER_VERS.putIfAbsent(game.getEffectiveServerVers(), game);
+        }
+    }
+
     // Constructor for games where client and server VERS are the same
     Game(String name, String vers, GameGenre gameGenre) {
         this.name = name;
@@ -85,12 +98,7 @@ public enum Game {
      * @return the corresponding Game, or null if not found
      */
     public static Game findByVers(String vers) {
-        for (Game game : values()) {
-            if (game.vers.equals(vers)) {
-                return game;
-            }
-        }
-        return null;
+        return GAMES_BY_VERS.get(vers);
     }
 
     /**
@@ -100,12 +108,7 @@ public enum Game {
      * @return the corresponding Game, or null if not found
      */
     public static Game findByServerVers(String serverVers) {
-        for (Game game : values()) {
-            if (game.getEffectiveServerVers().equals(serverVers)) {
-                return game;
-            }
-        }
-        return null;
+        return GAMES_BY_SERVER_VERS.get(serverVers);
     }
 
     /**
@@ -0,0 +1,11 @@
+package com.ea.enums;
+
+/**
+ * Scheduled jobs that must run on a single node at a time, each guarded by its own lease.
+ */
+public enum LeasedJob {
+    EVENTS,
+    STATUS,
+    IP_CHECK,
+    OUTBOX;
+}
@@ -0,0 +1,6 @@
+package com.ea.enums;
+
+public enum OutboxMessageType {
+    TEXT,
+    IMAGES;
+}
@@ -0,0 +1,15 @@
+package com.ea.enums;
+
+/**
+ * Delivery state of an outbox entry.
+ */
+public enum OutboxStatus {
+    // Waiting for its next attempt
+    PENDING,
+    // Claimed by the node sending it
+    IN_FLIGHT,
+    // Acknowledged by Discord, kept for a while before being purged
+    DONE,
+    // Given up after the last attempt, until requeued with /deadletters
+    DEAD;
+}
@@ -2,5 +2,6 @@ package com.ea.enums;
 
 public enum Params {
     LAST_FETCH_TIME,
-    LAST_KNOWN_IP;
+    LAST_KNOWN_IP,
+    CDC_LSN;
 }
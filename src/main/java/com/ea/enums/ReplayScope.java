@@ -0,0 +1,34 @@
+package com.ea.enums;
+
+public enum ReplayScope {
+    ALL("all"),
+    EVENTS("events"),
+    SCOREBOARDS("scoreboards");
+
+    private final String value;
+
+    ReplayScope(String value) {
+        this.value = value;
+    }
+
+    public static ReplayScope fromValue(String value) {
+        for (ReplayScope scope : values()) {
+            if (scope.value.equalsIgnoreCase(value)) {
+                return scope;
+            }
+        }
+        throw new IllegalArgumentException("Unknown replay scope: " + value);
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean includesEvents() {
+        return this != SCOREBOARDS;
+    }
+
+    public boolean includesScoreboards() {
+        return this != EVENTS;
+    }
+}
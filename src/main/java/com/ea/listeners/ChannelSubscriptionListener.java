@@ -10,16 +10,24 @@ import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 import static net.dv8tion.jda.api.Permission.MANAGE_SERVER;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ChannelSubscriptionListener extends ListenerAdapter {
+    public static final String DELIVERY_BOT = "bot";
+    public static final String DELIVERY_WEBHOOK = "webhook";
+
     private final JDA jda;
     private final ChannelSubscriptionService subscriptionService;
     private final DiscordBotService discordBotService;
@@ -69,9 +77,12 @@ public class ChannelSubscriptionListener extends ListenerAdapter {
         }
 
         String guildId = event.getGuild().getId();
-        if (subscribe) {
+        boolean webhook = DELIVERY_WEBHOOK.equals(event.getOption("delivery", DELIVERY_BOT, OptionMapping::getAsString));
+        if (subscribe && webhook) {
+            subscribeWithWebhook(event, guildId, subscriptionType, gameGenre);
+        } else if (subscribe) {
             String channelId = event.getChannel().getId();
-            subscriptionService.subscribe(guildId, channelId, subscriptionType, gameGenre);
+            subscriptionService.subscribe(guildId, channelId, subscriptionType, gameGenre, null);
             if (subscriptionType == SubscriptionType.STATUS) {
                 statusMessageService.upsertStatusMessage(guildId, channelId, gameGenre);
             }
@@ -84,4 +95,37 @@ public class ChannelSubscriptionListener extends ListenerAdapter {
             event.reply("Unsubscribed this server from " + subscriptionType.getValue() + " updates in " + gameGenre.getValue() + " genre.").setEphemeral(true).queue();
         }
     }
+
+    /**
+     * Subscribe the channel for logs or scoreboards delivered through a webhook, which has its own rate limits. The
+     * webhook is shared by the subscriptions of the channel, it is only created for the first one.
+     */
+    private void subscribeWithWebhook(SlashCommandInteractionEvent event, String guildId, SubscriptionType subscriptionType, GameGenre gameGenre) {
+        if (subscriptionType == SubscriptionType.STATUS) {
+            event.reply("Webhook delivery is only available for logs and scoreboards.").setEphemeral(true).queue();
+            return;
+        }
+        if (event.getChannelType() != ChannelType.TEXT) {
+            event.reply("Webhook delivery is only available in text channels.").setEphemeral(true).queue();
+            return;
+        }
+        TextChannel channel = event.getChannel().asTextChannel();
+        event.deferReply(true).queue();
+        subscriptionService.findWebhookUrl(channel.getId())
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> discordBotService.createWebhook(channel))
+                .whenComplete((webhookUrl, error) -> {
+                    String reply;
+                    if (error != null) {
+                        log.warn("Could not create a webhook in channel {}: {}", channel.getId(), error.getMessage());
+                        reply = "Could not create a webhook in this channel, check that the bot has the 'Manage Webhooks' permission.";
+                    } else {
+                        subscriptionService.subscribe(guildId, channel.getId(), subscriptionType, gameGenre, webhookUrl);
+                        reply = "Subscribed this channel for " + subscriptionType.getValue() + " updates in " + gameGenre.getValue()
+                                + " genre, delivered through a webhook.";
+                    }
+                    event.getHook().editOriginal(reply).queue(null,
+                            replyError -> log.warn("Could not report subscription result: {}", replyError.getMessage()));
+                });
+    }
 }
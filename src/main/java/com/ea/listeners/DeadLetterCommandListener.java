@@ -0,0 +1,80 @@
+package com.ea.listeners;
+
+import com.ea.entities.discord.OutboxEntity;
+import com.ea.services.discord.OutboxService;
+import com.ea.utils.EventFormatUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterCommandListener extends ListenerAdapter {
+    public static final String ACTION_LIST = "list";
+    public static final String ACTION_REQUEUE = "requeue";
+    private static final int LIST_LIMIT = 10;
+    private static final int ERROR_PREVIEW_LENGTH = 120;
+    private final JDA jda;
+    private final OutboxService outboxService;
+    @Value("${services.replay.admin-ids}")
+    private List<String> adminIds;
+
+    @PostConstruct
+    public void register() {
+        jda.addEventListener(this);
+    }
+
+    @Override
+    public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
+        if ("deadletters".equals(event.getName())) {
+            handleDeadLetters(event);
+        }
+    }
+
+    private void handleDeadLetters(SlashCommandInteractionEvent event) {
+        // Dead letters span every server, they are restricted to the bot administrators
+        if (!adminIds.contains(event.getUser().getId())) {
+            event.reply("You must be a bot administrator to use this command.").setEphemeral(true).queue();
+            return;
+        }
+
+        String reply;
+        if (ACTION_REQUEUE.equals(event.getOption("action").getAsString())) {
+            Long id = event.getOption("id", null, OptionMapping::getAsLong);
+            int requeued = outboxService.requeueDeadLetters(id);
+            reply = "Requeued " + requeued + " dead letters for delivery.";
+        } else {
+            reply = formatDeadLetters(outboxService.getDeadLetters(LIST_LIMIT), outboxService.countDeadLetters());
+        }
+        event.reply(reply).setEphemeral(true).queue();
+    }
+
+    private String formatDeadLetters(List<OutboxEntity> deadLetters, long total) {
+        if (deadLetters.isEmpty()) {
+            return "No dead letters.";
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        StringBuilder reply = new StringBuilder("**" + total + " dead letters**, most recent first:");
+        for (OutboxEntity entry : deadLetters) {
+            String error = String.valueOf(entry.getLastError());
+            String line = "\n`#" + entry.getId() + "` <#" + entry.getChannelId() + "> " + entry.getMessageType().name().toLowerCase()
+                    + ", created " + entry.getCreatedAt().format(formatter) + ", " + entry.getAttempts() + " attempts: "
+                    + (error.length() > ERROR_PREVIEW_LENGTH ? error.substring(0, ERROR_PREVIEW_LENGTH) + "…" : error);
+            if (reply.length() + line.length() > EventFormatUtils.MAX_MESSAGE_LENGTH) {
+                break;
+            }
+            reply.append(line);
+        }
+        return reply.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ea.listeners;
+
+import com.ea.enums.GameGenre;
+import com.ea.enums.ReplayScope;
+import com.ea.services.core.ReplayService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReplayCommandListener extends ListenerAdapter {
+    public static final String REPLAY_DATETIME_FORMAT = "yyyy-MM-dd HH:mm";
+    public static final String OUTPUT_CHANNEL = "channel";
+    public static final String OUTPUT_DISK = "disk";
+    private final JDA jda;
+    private final ReplayService replayService;
+    @Value("${services.replay.admin-ids}")
+    private List<String> adminIds;
+
+    @PostConstruct
+    public void register() {
+        jda.addEventListener(this);
+    }
+
+    @Override
+    public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
+        if ("replay".equals(event.getName())) {
+            handleReplay(event);
+        }
+    }
+
+    private void handleReplay(SlashCommandInteractionEvent event) {
+        // Replays render past games and can write to the bot's disk, they are restricted to the bot administrators
+        if (!adminIds.contains(event.getUser().getId())) {
+            event.reply("You must be a bot administrator to use this command.").setEphemeral(true).queue();
+            return;
+        }
+
+        LocalDateTime from;
+        LocalDateTime to;
+        ReplayScope scope;
+        GameGenre gameGenre;
+        try {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(REPLAY_DATETIME_FORMAT);
+            from = LocalDateTime.parse(event.getOption("from").getAsString(), formatter);
+            to = LocalDateTime.parse(event.getOption("to").getAsString(), formatter);
+            scope = ReplayScope.fromValue(event.getOption("scope", ReplayScope.ALL.getValue(), OptionMapping::getAsString));
+            gameGenre = GameGenre.fromValue(event.getOption("genre", GameGenre.ALL.getValue(), OptionMapping::getAsString));
+        } catch (DateTimeParseException e) {
+            event.reply("Invalid date, expected format: " + REPLAY_DATETIME_FORMAT).setEphemeral(true).queue();
+            return;
+        } catch (IllegalArgumentException e) {
+            event.reply("Invalid replay scope or game genre.").setEphemeral(true).queue();
+            return;
+        }
+        if (!from.isBefore(to)) {
+            event.reply("The start of the range must be before its end.").setEphemeral(true).queue();
+            return;
+        }
+
+        boolean toDisk = OUTPUT_DISK.equals(event.getOption("output", OUTPUT_CHANNEL, OptionMapping::getAsString));
+        String channelId = event.getChannel().getId();
+        event.deferReply(true).queue();
+        // Rendering a long range takes a while, it must not block the JDA event thread
+        Thread.ofVirtual().name("replay").start(() -> {
+            String reply;
+            try {
+                ReplayService.Summary summary = toDisk
+                        ? replayService.replayToDisk(from, to, scope, gameGenre)
+                        : replayService.replayToChannels(from, to, scope, gameGenre, List.of(channelId));
+                reply = "Replayed " + summary.events() + " events and " + summary.scoreboards() + " scoreboards in "
+                        + summary.pages() + " pages" + (toDisk ? " to " + summary.output() : "") + "."
+                        + (summary.unfinished() > 0 ? " " + summary.unfinished() + " scoreboards could not be rendered in time." : "");
+            } catch (IllegalStateException e) {
+                reply = e.getMessage() + ".";
+            } catch (Exception e) {
+                log.error("Error replaying from {} to {}", from, to, e);
+                reply = "Replay failed: " + e.getMessage();
+            }
+            event.getHook().editOriginal(reply).queue(null,
+                    error -> log.warn("Could not report replay result: {}", error.getMessage()));
+        });
+    }
+}
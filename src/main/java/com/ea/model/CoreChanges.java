@@ -0,0 +1,42 @@
+package com.ea.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * IDs of the core rows whose changes produce events, as streamed from the replication slot.
+ * The LSN is the end of the last transaction included, 0 when there is none.
+ */
+@Getter
+public class CoreChanges {
+    private final Set<Long> loginIds = new LinkedHashSet<>();
+    private final Set<Long> logoutIds = new LinkedHashSet<>();
+    private final Set<Long> joinIds = new LinkedHashSet<>();
+    private final Set<Long> leaveIds = new LinkedHashSet<>();
+    private final Set<Long> endedGameIds = new LinkedHashSet<>();
+    @Setter
+    private long lsn;
+
+    public void addAll(CoreChanges other) {
+        loginIds.addAll(other.loginIds);
+        logoutIds.addAll(other.logoutIds);
+        joinIds.addAll(other.joinIds);
+        leaveIds.addAll(other.leaveIds);
+        endedGameIds.addAll(other.endedGameIds);
+        lsn = Math.max(lsn, other.lsn);
+    }
+
+    /**
+     * @return the number of row IDs, the rows a tick loads for these changes
+     */
+    public int size() {
+        return loginIds.size() + logoutIds.size() + joinIds.size() + leaveIds.size() + endedGameIds.size();
+    }
+
+    public boolean isEmpty() {
+        return loginIds.isEmpty() && logoutIds.isEmpty() && joinIds.isEmpty() && leaveIds.isEmpty() && endedGameIds.isEmpty();
+    }
+}
@@ -1,18 +1,36 @@
 package com.ea.model;
 
+import com.ea.enums.EventType;
 import com.ea.enums.GameGenre;
-import lombok.AllArgsConstructor;
-import lombok.Getter;
 
 import java.time.LocalDateTime;
 
-@Getter
-@AllArgsConstructor
-public class Event implements Comparable<Event> {
-    private long id;
-    private LocalDateTime time;
-    private String message;
-    private GameGenre gameGenre;
+/**
+ * A player event, kept typed until it is rendered for Discord.
+ *
+ * @param id        the persona connection or game connection ID
+ * @param time      when the event happened
+ * @param type      the kind of event
+ * @param gameGenre the genre of the game
+ * @param persona   the persona name
+ * @param gameTitle the game title, e.g. [PSP] NHL 07
+ * @param gameName  the game room name, null for connections
+ */
+public record Event(long id, LocalDateTime time, EventType type, GameGenre gameGenre,
+                    String persona, String gameTitle, String gameName) implements Comparable<Event> {
+
+    /**
+     * Key shared by an event and the event that cancels it out: same persona on the same game title,
+     * and the same game room for joins and leaves.
+     *
+     * @return the compaction key
+     */
+    public String compactionKey() {
+        return switch (type) {
+            case CONNECTED, DISCONNECTED -> "session|" + persona + "|" + gameTitle;
+            case JOINED_GAME, LEFT_GAME -> "game|" + persona + "|" + gameTitle + "|" + gameName;
+        };
+    }
 
     @Override
     public int compareTo(Event other) {
@@ -21,21 +39,11 @@ public class Event implements Comparable<Event> {
             return timeComparison;
         }
 
-        int thisMessagePriority = getMessagePriority(this.message);
-        int otherMessagePriority = getMessagePriority(other.message);
-
-        if (thisMessagePriority != otherMessagePriority) {
-            return Integer.compare(thisMessagePriority, otherMessagePriority);
+        int priorityComparison = Integer.compare(this.type.getPriority(), other.type.getPriority());
+        if (priorityComparison != 0) {
+            return priorityComparison;
         }
 
         return Long.compare(this.id, other.id);
     }
-
-    private int getMessagePriority(String message) {
-        if (message.contains(" connected")) return 1;
-        if (message.contains(" left game ")) return 2;
-        if (message.contains(" joined game ")) return 3;
-        if (message.contains(" disconnected")) return 4;
-        return 5;
-    }
 }
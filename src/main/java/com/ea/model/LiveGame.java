@@ -0,0 +1,22 @@
+package com.ea.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight view of a game that has not ended yet, as tracked by the presence state.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class LiveGame {
+    private long id;
+    private String name;
+    private String vers;
+    private int maxsize;
+    private boolean started;
+    private LocalDateTime startTime;
+}
@@ -0,0 +1,20 @@
+package com.ea.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Lightweight view of a player currently connected to a game, as tracked by the presence state.
+ * {@code host} is the game connection flag (used for display), {@code sessionHost} the persona connection
+ * flag (dedicated servers, excluded from player counts).
+ */
+@Getter
+@AllArgsConstructor
+public class LiveGameConnection {
+    private long id;
+    private long gameId;
+    private long personaConnectionId;
+    private String persona;
+    private boolean host;
+    private boolean sessionHost;
+}
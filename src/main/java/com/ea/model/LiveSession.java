@@ -0,0 +1,16 @@
+package com.ea.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Lightweight view of an open persona connection, as tracked by the presence state.
+ */
+@Getter
+@AllArgsConstructor
+public class LiveSession {
+    private long id;
+    private String persona;
+    private String vers;
+    private boolean host;
+}
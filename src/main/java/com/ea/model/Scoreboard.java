@@ -0,0 +1,18 @@
+package com.ea.model;
+
+import com.ea.enums.GameGenre;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The rendered scoreboard of a finished game.
+ *
+ * @param gameId     the game ID
+ * @param gameGenre  the genre of the game, null when unknown
+ * @param endTime    when the game ended
+ * @param imageFiles the scoreboard images, empty when the game was skipped
+ */
+public record Scoreboard(long gameId, GameGenre gameGenre, LocalDateTime endTime, List<File> imageFiles) {
+}
@@ -2,12 +2,17 @@ package com.ea.repositories.core;
 
 import com.ea.entities.core.GameConnectionEntity;
 import com.ea.entities.core.PersonaConnectionEntity;
+import com.ea.model.LiveGameConnection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface GameConnectionRepository extends JpaRepository<GameConnectionEntity, Long> {
@@ -18,20 +23,38 @@ public interface GameConnectionRepository extends JpaRepository<GameConnectionEn
     int countPlayersInGame();
 
     // Find player joins (not hosts, not map rotation)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
     @Query("SELECT gc FROM GameConnectionEntity gc WHERE gc.personaConnection.isHost = false AND gc.startTime BETWEEN :start AND :end AND (gc.endTime IS NULL OR gc.endTime <> gc.game.endTime) AND gc.personaConnection.vers IN :vers ORDER BY gc.startTime")
-    List<GameConnectionEntity> findMohhPlayerJoins(LocalDateTime start, LocalDateTime end, List<String> vers);
+    Stream<GameConnectionEntity> streamMohhPlayerJoins(LocalDateTime start, LocalDateTime end, List<String> vers);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
     @Query("SELECT gc FROM GameConnectionEntity gc WHERE gc.personaConnection.isHost = false AND gc.startTime BETWEEN :start AND :end AND gc.endTime IS NULL AND gc.personaConnection.vers NOT IN :vers ORDER BY gc.startTime")
-    List<GameConnectionEntity> findNotMohhPlayerJoins(LocalDateTime start, LocalDateTime end, List<String> vers);
+    Stream<GameConnectionEntity> streamNotMohhPlayerJoins(LocalDateTime start, LocalDateTime end, List<String> vers);
 
     // Find player leaves (not hosts, not map rotation)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
     @Query("SELECT gc FROM GameConnectionEntity gc WHERE gc.personaConnection.isHost = false AND gc.endTime BETWEEN :start AND :end AND (gc.game.endTime IS NULL OR gc.endTime <> gc.game.endTime) AND gc.personaConnection.vers IN :vers ORDER BY gc.endTime")
-    List<GameConnectionEntity> findMohhPlayerLeaves(LocalDateTime start, LocalDateTime end, List<String> vers);
+    Stream<GameConnectionEntity> streamMohhPlayerLeaves(LocalDateTime start, LocalDateTime end, List<String> vers);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
     @Query("SELECT gc FROM GameConnectionEntity gc WHERE gc.personaConnection.isHost = false AND gc.endTime BETWEEN :start AND :end AND gc.personaConnection.vers NOT IN :vers ORDER BY gc.endTime")
-    List<GameConnectionEntity> findNotMohhPlayerLeaves(LocalDateTime start, LocalDateTime end, List<String> vers);
+    Stream<GameConnectionEntity> streamNotMohhPlayerLeaves(LocalDateTime start, LocalDateTime end, List<String> vers);
 
     // Find a personaConnection ending at a specific time (for map rotation detection)
     GameConnectionEntity findFirstByPersonaConnectionAndEndTimeOrderByEndTimeDesc(PersonaConnectionEntity personaConnection, LocalDateTime endTime);
 
-}
\ No newline at end of file
+    // Live presence: open game connections (hosts included), the ones of ended games keep their player out of the lobby
+    @Query("SELECT new com.ea.model.LiveGameConnection(gc.id, gc.game.id, gc.personaConnection.id, gc.personaConnection.persona.pers, gc.isHost, gc.personaConnection.isHost) " +
+            "FROM GameConnectionEntity gc WHERE gc.endTime IS NULL")
+    List<LiveGameConnection> findLiveGameConnections();
+
+    // Live presence delta: game connections started in the window (hosts included)
+    @Query("SELECT new com.ea.model.LiveGameConnection(gc.id, gc.game.id, gc.personaConnection.id, gc.personaConnection.persona.pers, gc.isHost, gc.personaConnection.isHost) " +
+            "FROM GameConnectionEntity gc WHERE gc.startTime BETWEEN :start AND :end")
+    List<LiveGameConnection> findLiveGameConnectionsStartedBetween(LocalDateTime start, LocalDateTime end);
+
+    // Live presence delta: game connections ended in the window (hosts included)
+    @Query("SELECT gc.id FROM GameConnectionEntity gc WHERE gc.endTime BETWEEN :start AND :end")
+    List<Long> findGameConnectionIdsEndedBetween(LocalDateTime start, LocalDateTime end);
+
+}
@@ -1,6 +1,7 @@
 package com.ea.repositories.core;
 
 import com.ea.entities.core.GameEntity;
+import com.ea.model.LiveGame;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,4 +25,41 @@ public interface GameRepository extends JpaRepository<GameEntity, Long> {
     @Query("SELECT g FROM GameEntity g WHERE g.vers IN :serverVersCodesList AND g.endTime IS NULL ORDER BY g.startTime")
     List<GameEntity> findActiveGamesByServerVers(@Param("serverVersCodesList") List<String> serverVersCodesList);
 
+    /**
+     * Find all games that have not ended yet, as lightweight rows (no connections fetched).
+     *
+     * @return list of live games
+     */
+    @Query("SELECT new com.ea.model.LiveGame(g.id, g.name, g.vers, g.maxsize, g.isStarted, g.startTime) FROM GameEntity g WHERE g.endTime IS NULL")
+    List<LiveGame> findLiveGames();
+
+    /**
+     * Find games created in a time window, as lightweight rows (no connections fetched).
+     *
+     * @param start window start (inclusive)
+     * @param end   window end (inclusive)
+     * @return list of games started in the window
+     */
+    @Query("SELECT new com.ea.model.LiveGame(g.id, g.name, g.vers, g.maxsize, g.isStarted, g.startTime) FROM GameEntity g WHERE g.startTime BETWEEN :start AND :end")
+    List<LiveGame> findLiveGamesStartedBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Find the IDs of games that ended in a time window.
+     *
+     * @param start window start (inclusive)
+     * @param end   window end (inclusive)
+     * @return list of game IDs
+     */
+    @Query("SELECT g.id FROM GameEntity g WHERE g.endTime BETWEEN :start AND :end")
+    List<Long> findGameIdsEndedBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Find the IDs of active games flagged as started.
+     * The started flag has no timestamp, so it is polled alongside the time-window deltas.
+     *
+     * @return list of game IDs
+     */
+    @Query("SELECT g.id FROM GameEntity g WHERE g.endTime IS NULL AND g.isStarted = true")
+    List<Long> findStartedActiveGameIds();
+
 }
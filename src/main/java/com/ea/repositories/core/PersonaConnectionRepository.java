@@ -1,13 +1,18 @@
 package com.ea.repositories.core;
 
 import com.ea.entities.core.PersonaConnectionEntity;
+import com.ea.model.LiveSession;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PersonaConnectionRepository extends JpaRepository<PersonaConnectionEntity, Long> {
@@ -17,12 +22,14 @@ public interface PersonaConnectionRepository extends JpaRepository<PersonaConnec
     int countPlayersOnline();
 
     // Find persona logins (not hosts)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
     @Query("SELECT pc FROM PersonaConnectionEntity pc WHERE pc.isHost = false AND pc.startTime BETWEEN :start AND :end ORDER BY pc.startTime")
-    List<PersonaConnectionEntity> findPersonaLogins(LocalDateTime start, LocalDateTime end);
+    Stream<PersonaConnectionEntity> streamPersonaLogins(LocalDateTime start, LocalDateTime end);
 
     // Find persona logouts (not hosts)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
     @Query("SELECT pc FROM PersonaConnectionEntity pc WHERE pc.isHost = false AND pc.endTime BETWEEN :start AND :end ORDER BY pc.endTime")
-    List<PersonaConnectionEntity> findPersonaLogouts(LocalDateTime start, LocalDateTime end);
+    Stream<PersonaConnectionEntity> streamPersonaLogouts(LocalDateTime start, LocalDateTime end);
 
     /**
      * Find players currently connected in lobby (not in game) for specific VERS codes.
@@ -35,4 +42,16 @@ public interface PersonaConnectionRepository extends JpaRepository<PersonaConnec
             "AND pc.vers IN :versCodesList " +
             "AND NOT EXISTS (SELECT gc FROM GameConnectionEntity gc WHERE gc.personaConnection = pc AND gc.endTime IS NULL)")
     List<PersonaConnectionEntity> findPlayersInLobbyByVers(@Param("versCodesList") List<String> versCodesList);
+
+    // Live presence: open sessions (hosts included)
+    @Query("SELECT new com.ea.model.LiveSession(pc.id, pc.persona.pers, pc.vers, pc.isHost) FROM PersonaConnectionEntity pc WHERE pc.endTime IS NULL")
+    List<LiveSession> findLiveSessions();
+
+    // Live presence delta: sessions started in the window (hosts included)
+    @Query("SELECT new com.ea.model.LiveSession(pc.id, pc.persona.pers, pc.vers, pc.isHost) FROM PersonaConnectionEntity pc WHERE pc.startTime BETWEEN :start AND :end")
+    List<LiveSession> findLiveSessionsStartedBetween(LocalDateTime start, LocalDateTime end);
+
+    // Live presence delta: sessions ended in the window (hosts included)
+    @Query("SELECT pc.id FROM PersonaConnectionEntity pc WHERE pc.endTime BETWEEN :start AND :end")
+    List<Long> findSessionIdsEndedBetween(LocalDateTime start, LocalDateTime end);
 }
@@ -16,4 +16,6 @@ public interface ChannelSubscriptionRepository extends JpaRepository<ChannelSubs
     void deleteByGuildIdAndSubscriptionTypeAndGameGenre(String guildId, SubscriptionType subscriptionType, GameGenre gameGenre);
 
     List<ChannelSubscriptionEntity> findAllBySubscriptionTypeAndGameGenre(SubscriptionType subscriptionType, GameGenre gameGenre);
+
+    List<ChannelSubscriptionEntity> findAllByWebhookUrl(String webhookUrl);
 }
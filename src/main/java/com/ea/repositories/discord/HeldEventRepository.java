@@ -0,0 +1,29 @@
+package com.ea.repositories.discord;
+
+import com.ea.entities.discord.HeldEventEntity;
+import com.ea.enums.GameGenre;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface HeldEventRepository extends JpaRepository<HeldEventEntity, Long> {
+
+    List<HeldEventEntity> findByGameGenreIn(Collection<GameGenre> gameGenres);
+
+    /**
+     * Remove the held events of genres, before saving the ones still held after a tick.
+     *
+     * @param gameGenres the genres processed by the tick
+     * @return the number of events removed
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM HeldEventEntity h WHERE h.gameGenre IN :gameGenres")
+    int deleteByGameGenreIn(Collection<GameGenre> gameGenres);
+}
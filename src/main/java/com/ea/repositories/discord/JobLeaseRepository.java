@@ -0,0 +1,63 @@
+package com.ea.repositories.discord;
+
+import com.ea.entities.discord.JobLeaseEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLeaseEntity, String> {
+
+    /**
+     * Take or extend a lease, in a single statement so that two nodes cannot both win it.
+     *
+     * @param jobName   the job
+     * @param ownerId   the node taking the lease
+     * @param now       the current time, the lease can be taken over once expired
+     * @param expiresAt the new expiration time
+     * @return 1 if the node holds the lease, 0 if another node does
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobLeaseEntity l SET l.ownerId = :ownerId, l.expiresAt = :expiresAt " +
+            "WHERE l.jobName = :jobName AND (l.ownerId = :ownerId OR l.expiresAt < :now)")
+    int tryAcquire(String jobName, String ownerId, LocalDateTime now, LocalDateTime expiresAt);
+
+    /**
+     * Extend a lease only if this node still holds it, to fence its writes. Unlike {@link #tryAcquire}, this never takes
+     * back a lease that expired or was released, even by this node.
+     *
+     * @param jobName   the job
+     * @param ownerId   the node holding the lease
+     * @param now       the current time
+     * @param expiresAt the new expiration time
+     * @return 1 if the node still holds the lease, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobLeaseEntity l SET l.expiresAt = :expiresAt " +
+            "WHERE l.jobName = :jobName AND l.ownerId = :ownerId AND l.expiresAt > :now")
+    int renew(String jobName, String ownerId, LocalDateTime now, LocalDateTime expiresAt);
+
+    /**
+     * Give up a lease so that another node can take it over right away.
+     *
+     * @param jobName the job
+     * @param ownerId the node holding the lease
+     * @param now     the current time
+     * @return 1 if the lease was released
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobLeaseEntity l SET l.expiresAt = :now WHERE l.jobName = :jobName AND l.ownerId = :ownerId")
+    int release(String jobName, String ownerId, LocalDateTime now);
+
+    long countByJobNameStartingWithAndExpiresAtAfter(String prefix, LocalDateTime now);
+
+    @Transactional
+    void deleteByJobNameStartingWithAndExpiresAtBefore(String prefix, LocalDateTime before);
+}
@@ -0,0 +1,120 @@
+package com.ea.repositories.discord;
+
+import com.ea.entities.discord.OutboxEntity;
+import com.ea.enums.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEntity, Long> {
+
+    /**
+     * Find notifications due for delivery, oldest first.
+     *
+     * @param status   the status to look for
+     * @param now      only notifications whose next attempt is due at this time
+     * @param pageable the batch size
+     * @return the due notifications
+     */
+    List<OutboxEntity> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(OutboxStatus status, LocalDateTime now, Pageable pageable);
+
+    /**
+     * @param status the status to look for
+     * @return the number of notifications with this status
+     */
+    long countByStatus(OutboxStatus status);
+
+    /**
+     * @param status   the status to look for
+     * @param pageable the page to return
+     * @return the notifications with this status, most recent first
+     */
+    List<OutboxEntity> findByStatusOrderByIdDesc(OutboxStatus status, Pageable pageable);
+
+    /**
+     * Claim pending notifications for this node to send.
+     *
+     * @param ids         the notifications
+     * @param nodeId      the node sending them
+     * @param lockedUntil the end of the claim, after which another node may send them
+     * @return the number of notifications claimed, less than requested if another node claimed some
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEntity o SET o.status = com.ea.enums.OutboxStatus.IN_FLIGHT, o.lockedBy = :nodeId, o.lockedUntil = :lockedUntil " +
+            "WHERE o.id IN :ids AND o.status = com.ea.enums.OutboxStatus.PENDING")
+    int claim(Collection<Long> ids, String nodeId, LocalDateTime lockedUntil);
+
+    /**
+     * Give back the claims of this node on notifications.
+     *
+     * @param ids    the notifications
+     * @param nodeId the node that claimed them
+     * @return the number of notifications released
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEntity o SET o.status = com.ea.enums.OutboxStatus.PENDING, o.lockedBy = null, o.lockedUntil = null " +
+            "WHERE o.id IN :ids AND o.status = com.ea.enums.OutboxStatus.IN_FLIGHT AND o.lockedBy = :nodeId")
+    int unclaim(Collection<Long> ids, String nodeId);
+
+    /**
+     * Put back the notifications whose claim expired, left behind by a node that stopped or timed out.
+     *
+     * @param now the current time
+     * @return the number of notifications released
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEntity o SET o.status = com.ea.enums.OutboxStatus.PENDING, o.lockedBy = null, o.lockedUntil = null " +
+            "WHERE o.status = com.ea.enums.OutboxStatus.IN_FLIGHT AND o.lockedUntil < :now")
+    int releaseExpiredClaims(LocalDateTime now);
+
+    /**
+     * Requeue a dead notification for a fresh series of attempts.
+     *
+     * @param id  the notification
+     * @param now the time of the next attempt
+     * @return 1 if the notification was dead and is now pending
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEntity o SET o.status = com.ea.enums.OutboxStatus.PENDING, o.attempts = 0, o.nextAttemptAt = :now " +
+            "WHERE o.id = :id AND o.status = com.ea.enums.OutboxStatus.DEAD")
+    int requeueDead(Long id, LocalDateTime now);
+
+    /**
+     * Requeue every dead notification for a fresh series of attempts.
+     *
+     * @param now the time of the next attempt
+     * @return the number of notifications requeued
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEntity o SET o.status = com.ea.enums.OutboxStatus.PENDING, o.attempts = 0, o.nextAttemptAt = :now " +
+            "WHERE o.status = com.ea.enums.OutboxStatus.DEAD")
+    int requeueAllDead(LocalDateTime now);
+
+    @Transactional
+    void deleteByStatusAndDeliveredAtBefore(OutboxStatus status, LocalDateTime before);
+
+    /**
+     * Share the attachment URLs of uploaded images with every notification of the same images.
+     *
+     * @param imagePaths the newline-separated paths of the images
+     * @param imageUrls  the newline-separated attachment URLs
+     * @return the number of notifications updated
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEntity o SET o.imageUrls = :imageUrls WHERE o.imagePaths = :imagePaths")
+    int setImageUrls(String imagePaths, String imageUrls);
+}
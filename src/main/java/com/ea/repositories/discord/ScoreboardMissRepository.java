@@ -0,0 +1,19 @@
+package com.ea.repositories.discord;
+
+import com.ea.entities.discord.ScoreboardMissEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ScoreboardMissRepository extends JpaRepository<ScoreboardMissEntity, Long> {
+
+    List<ScoreboardMissEntity> findByGameIdInAndMissesGreaterThanEqual(Collection<Long> gameIds, int misses);
+
+    @Transactional
+    void deleteByLastMissAtBefore(LocalDateTime before);
+}
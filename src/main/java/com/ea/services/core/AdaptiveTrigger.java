@@ -0,0 +1,90 @@
+package com.ea.services.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Fixed-delay trigger whose delay follows server activity.
+ * While the activity signal is up, or activity was recorded within the activity window, the job runs at the
+ * minimum delay. Otherwise the delay doubles after each run until it reaches the maximum delay.
+ */
+@Slf4j
+public class AdaptiveTrigger implements Trigger {
+
+    private final String name;
+    private final Duration minDelay;
+    private final Duration maxDelay;
+    private final Duration activityWindow;
+    private final BooleanSupplier activitySignal;
+    private final Counter executions;
+
+    @Getter
+    private volatile Duration currentDelay;
+    @Getter
+    private volatile boolean active;
+    private volatile Instant lastActivity = Instant.EPOCH;
+
+    public AdaptiveTrigger(String name, Duration minDelay, Duration maxDelay, Duration activityWindow,
+                           BooleanSupplier activitySignal, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.activityWindow = activityWindow;
+        this.activitySignal = activitySignal;
+        this.currentDelay = minDelay;
+
+        TimeGauge.builder("polling.delay", this, TimeUnit.MILLISECONDS, trigger -> trigger.currentDelay.toMillis())
+                .description("Current delay between two runs of the job")
+                .tag("job", name)
+                .register(meterRegistry);
+        Gauge.builder("polling.active", this, trigger -> trigger.active ? 1 : 0)
+                .description("Whether the job is polling at its fastest cadence")
+                .tag("job", name)
+                .register(meterRegistry);
+        this.executions = Counter.builder("polling.executions")
+                .description("Number of runs of the job")
+                .tag("job", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record that the last run saw activity (events, finished games...), keeping the fast cadence for the
+     * activity window.
+     */
+    public void recordActivity() {
+        lastActivity = Instant.now();
+    }
+
+    @Override
+    public Instant nextExecution(TriggerContext triggerContext) {
+        Instant lastCompletion = triggerContext.lastCompletion();
+        if (lastCompletion == null) {
+            return Instant.now();
+        }
+        executions.increment();
+
+        active = activitySignal.getAsBoolean() || lastActivity.plus(activityWindow).isAfter(lastCompletion);
+        Duration previousDelay = currentDelay;
+        if (active) {
+            currentDelay = minDelay;
+        } else {
+            Duration doubled = previousDelay.multipliedBy(2);
+            currentDelay = doubled.compareTo(maxDelay) > 0 ? maxDelay : doubled;
+        }
+        if (!currentDelay.equals(previousDelay)) {
+            log.debug("Job {} delay changed from {} ms to {} ms", name, previousDelay.toMillis(), currentDelay.toMillis());
+        }
+        return lastCompletion.plus(currentDelay);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ea.services.core;
+
+import com.ea.model.Event;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Compacts player events before they are sent to the LOGS feeds.
+ * Events are held for the compaction window; within that window, an event followed by its opposite for the same
+ * persona and game (disconnect then reconnect, join then leave...) cancels out and neither is sent.
+ * Events are released once no later event can cancel them anymore. A window of 0 disables compaction.
+ * The compactor keeps no state: the held events are given back to the caller, which commits them with its checkpoint.
+ */
+@Slf4j
+@Component
+public class EventCompactor {
+
+    @Value("${services.events.compaction-window}")
+    private long compactionWindow;
+
+    /**
+     * Result of a compaction.
+     *
+     * @param released the events to send, sorted
+     * @param held     the events to hold until the next tick, sorted
+     */
+    public record Compaction(List<Event> released, List<Event> held) {
+    }
+
+    /**
+     * Add the events of a tick to the events held by the previous one and get the events ready to be sent.
+     *
+     * @param held   the events held by the previous tick
+     * @param events the new events
+     * @param now    the end of the tick's fetch window
+     * @return the events to send and the events still held
+     */
+    public Compaction compact(List<Event> held, List<Event> events, LocalDateTime now) {
+        List<Event> pending = new ArrayList<>(held);
+        pending.addAll(events);
+        Collections.sort(pending);
+        if (compactionWindow <= 0) {
+            return new Compaction(pending, List.of());
+        }
+
+        // Cancel out pairs of opposite events for the same key that are close enough
+        Map<String, Event> lastByKey = new HashMap<>();
+        Set<Event> cancelled = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Event event : pending) {
+            String key = event.compactionKey();
+            Event last = lastByKey.get(key);
+            if (last != null && last.type().opposite() == event.type()
+                    && !last.time().plusNanos(compactionWindow * 1_000_000).isBefore(event.time())) {
+                cancelled.add(last);
+                cancelled.add(event);
+                lastByKey.remove(key);
+            } else {
+                lastByKey.put(key, event);
+            }
+        }
+        if (!cancelled.isEmpty()) {
+            log.debug("Compacted {} events", cancelled.size());
+            pending.removeAll(cancelled);
+        }
+
+        // Release the events that are older than the window
+        LocalDateTime releaseBefore = now.minusNanos(compactionWindow * 1_000_000);
+        List<Event> released = new ArrayList<>();
+        Iterator<Event> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            Event event = iterator.next();
+            if (event.time().isBefore(releaseBefore)) {
+                released.add(event);
+                iterator.remove();
+            }
+        }
+        return new Compaction(released, pending);
+    }
+}
@@ -0,0 +1,126 @@
+package com.ea.services.core;
+
+import com.ea.enums.GameGenre;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Shares the game genres between the bot instances, each one rendering scoreboards, sending logs and updating status
+ * messages for the genres it owns.
+ * <p>
+ * Each genre has a lease row (GENRE_ prefix) and each node a heartbeat row (NODE_ prefix) in the JOB_LEASE table. On
+ * each renewal a node computes its fair share, the number of genres divided by the number of live nodes rounded up,
+ * renews the genres it owns, gives up the ones above its share and takes free ones below it. A node joining makes the
+ * others release genres on their next renewal; genres of a node leaving are taken over once their lease expires, right
+ * away when it shuts down cleanly.
+ * <p>
+ * Requires services.lease.enabled. When disabled, this node owns every genre.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GenreShardService {
+
+    private static final String GENRE_PREFIX = "GENRE_";
+
+    private final LeaseService leaseService;
+    // Genres owned after the last renewal, only written by the renewal
+    private volatile Set<GameGenre> ownedGenres = Collections.unmodifiableSet(EnumSet.noneOf(GameGenre.class));
+    @Value("${services.sharding.enabled}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled && leaseService.isEnabled();
+    }
+
+    @Scheduled(fixedDelayString = "${services.lease.renew-interval}")
+    public void rebalance() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            leaseService.heartbeat();
+            int fairShare = Math.ceilDiv(GameGenre.values().length, leaseService.countLiveNodes());
+
+            Set<GameGenre> owned = EnumSet.noneOf(GameGenre.class);
+            for (GameGenre genre : ownedGenres) {
+                if (leaseService.tryAcquire(leaseName(genre))) {
+                    owned.add(genre);
+                }
+            }
+            // Hand over the genres above the fair share to the nodes that joined
+            for (GameGenre genre : EnumSet.copyOf(owned)) {
+                if (owned.size() <= fairShare) {
+                    break;
+                }
+                leaseService.release(leaseName(genre));
+                owned.remove(genre);
+            }
+            // Take the genres released or left behind by other nodes
+            for (GameGenre genre : GameGenre.values()) {
+                if (owned.size() >= fairShare) {
+                    break;
+                }
+                if (!owned.contains(genre) && leaseService.tryAcquire(leaseName(genre))) {
+                    owned.add(genre);
+                }
+            }
+            if (!owned.equals(ownedGenres)) {
+                log.info("Node {} now owns genres {}", leaseService.getNodeId(), owned);
+            }
+            ownedGenres = Collections.unmodifiableSet(owned);
+        } catch (Exception e) {
+            // Keep the current genres, their leases run out if the renewals keep failing
+            log.error("Failed to rebalance genres", e);
+        }
+    }
+
+    /**
+     * @return the genres this node processes
+     */
+    public Set<GameGenre> getOwnedGenres() {
+        if (!isEnabled()) {
+            return EnumSet.allOf(GameGenre.class);
+        }
+        Set<GameGenre> owned = EnumSet.noneOf(GameGenre.class);
+        for (GameGenre genre : ownedGenres) {
+            // Drop the genres whose lease ran out locally, another node may already process them
+            if (leaseService.isHeld(leaseName(genre))) {
+                owned.add(genre);
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * @param gameGenre the genre
+     * @return true if this node processes the genre
+     */
+    public boolean owns(GameGenre gameGenre) {
+        return !isEnabled() || (ownedGenres.contains(gameGenre) && leaseService.isHeld(leaseName(gameGenre)));
+    }
+
+    /**
+     * Renew the lease of a genre, joining the caller's transaction if any, to fence its writes. A genre handed over
+     * by the last renewal is not taken back.
+     *
+     * @param gameGenre the genre
+     * @throws IllegalStateException if this node no longer owns the genre
+     */
+    public void assertOwner(GameGenre gameGenre) {
+        if (isEnabled()) {
+            leaseService.assertHeld(leaseName(gameGenre));
+        }
+    }
+
+    private static String leaseName(GameGenre gameGenre) {
+        return GENRE_PREFIX + gameGenre.name();
+    }
+}
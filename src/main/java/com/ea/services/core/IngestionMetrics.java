@@ -0,0 +1,95 @@
+package com.ea.services.core;
+
+import com.ea.enums.GameGenre;
+import com.ea.enums.OutboxMessageType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Freshness metrics of the event pipeline, from the game server database to Discord.
+ * <ul>
+ *     <li>ingestion.stage: time spent in each stage (game_query, event_query, processing, rendering, queueing,
+ *     delivery), per genre. Stages covering a whole tick are tagged with the ALL genre.</li>
+ *     <li>ingestion.lag: time between the DB timestamp of an event (login, leave, game end) and the Discord
+ *     acknowledgement of its notification, per genre and notification type.</li>
+ *     <li>outbox.depth: notifications waiting for delivery, as of the last outbox drain.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class IngestionMetrics {
+
+    // Finished games, per genre when polling time ranges
+    public static final String STAGE_GAME_QUERY = "game_query";
+    // Player events, once per tick
+    public static final String STAGE_EVENT_QUERY = "event_query";
+    public static final String STAGE_PROCESSING = "processing";
+    public static final String STAGE_RENDERING = "rendering";
+    public static final String STAGE_QUEUEING = "queueing";
+    public static final String STAGE_DELIVERY = "delivery";
+    private static final String UNKNOWN_GENRE = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong outboxDepth = new AtomicLong();
+
+    @PostConstruct
+    public void registerGauges() {
+        Gauge.builder("outbox.depth", outboxDepth, AtomicLong::get)
+                .description("Notifications waiting for delivery")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record the time spent in a stage.
+     *
+     * @param stage     the stage, one of the STAGE_ constants
+     * @param gameGenre the genre processed, ALL for a whole tick, null if unknown
+     * @param duration  the time spent
+     */
+    public void recordStage(String stage, GameGenre gameGenre, Duration duration) {
+        Timer.builder("ingestion.stage")
+                .description("Time spent in each stage of the event pipeline")
+                .tag("stage", stage)
+                .tag("genre", genreTag(gameGenre))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    /**
+     * Record the time between an event in the database and the Discord acknowledgement of its notification.
+     *
+     * @param messageType the notification type, TEXT for logs and IMAGES for scoreboards
+     * @param gameGenre   the genre of the notification, null if unknown
+     * @param lag         the end-to-end delay
+     */
+    public void recordLag(OutboxMessageType messageType, GameGenre gameGenre, Duration lag) {
+        Timer.builder("ingestion.lag")
+                .description("Delay between an event in the database and its notification reaching Discord")
+                .tag("type", messageType.name().toLowerCase())
+                .tag("genre", genreTag(gameGenre))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(lag);
+    }
+
+    /**
+     * Record the number of notifications waiting for delivery.
+     *
+     * @param pending the pending outbox entries
+     */
+    public void recordOutboxDepth(long pending) {
+        outboxDepth.set(pending);
+    }
+
+    private String genreTag(GameGenre gameGenre) {
+        return gameGenre != null ? gameGenre.getValue() : UNKNOWN_GENRE;
+    }
+}
@@ -0,0 +1,191 @@
+package com.ea.services.core;
+
+import com.ea.entities.discord.JobLeaseEntity;
+import com.ea.enums.LeasedJob;
+import com.ea.repositories.discord.JobLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Leader election for scheduled jobs when several bot instances share the database.
+ * Each job has a lease row; the node holding an unexpired lease runs the job, the others skip it. Leases are renewed
+ * in the background well before they expire, so a standby node takes over within one lease duration of the leader
+ * going away, and right away when it shuts down cleanly.
+ * Lease times come from each node's clock: the lease duration must stay well above the clock skew between nodes.
+ * When disabled, every job runs on this node.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaseService {
+
+    private static final String NODE_PREFIX = "NODE_";
+
+    private final JobLeaseRepository jobLeaseRepository;
+    // Local end of validity of the leases held by this node, by lease name
+    private final Map<String, LocalDateTime> heldUntil = new HashMap<>();
+    @Getter
+    @Value("${services.lease.enabled}")
+    private boolean enabled;
+    @Getter
+    @Value("${services.lease.node-id}")
+    private String nodeId;
+    @Value("${services.lease.duration}")
+    private long leaseDuration;
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${services.lease.renew-interval}")
+    public void renewLeases() {
+        if (!enabled) {
+            return;
+        }
+        for (LeasedJob job : LeasedJob.values()) {
+            try {
+                tryAcquire(job.name());
+            } catch (Exception e) {
+                // Keep the current validity, the lease is lost once it runs out
+                log.error("Failed to renew lease for job {}", job, e);
+            }
+        }
+    }
+
+    /**
+     * @param job the job
+     * @return true if this node should run the job
+     */
+    public boolean isLeader(LeasedJob job) {
+        return !enabled || isHeld(job.name());
+    }
+
+    /**
+     * @param leaseName the lease
+     * @return true if this node holds the lease and it has not run out locally
+     */
+    public boolean isHeld(String leaseName) {
+        synchronized (heldUntil) {
+            LocalDateTime until = heldUntil.get(leaseName);
+            return until != null && LocalDateTime.now().isBefore(until);
+        }
+    }
+
+    /**
+     * Renew the lease of a job, joining the caller's transaction if any. Used to fence a job's writes: if another node
+     * took the lease over in the meantime, the caller's transaction is rolled back.
+     *
+     * @param job the job
+     * @throws IllegalStateException if another node holds the lease
+     */
+    public void assertLeader(LeasedJob job) {
+        if (enabled) {
+            assertHeld(job.name());
+        }
+    }
+
+    /**
+     * Renew a lease this node still holds, joining the caller's transaction if any. A lease that ran out or was released
+     * is not taken back, even if no other node took it over yet.
+     *
+     * @param leaseName the lease
+     * @throws IllegalStateException if this node no longer holds the lease
+     */
+    public void assertHeld(String leaseName) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(leaseDuration));
+        boolean held = jobLeaseRepository.renew(leaseName, nodeId, now, expiresAt) > 0;
+        updateHeldUntil(leaseName, held, now, expiresAt);
+        if (!held) {
+            throw new IllegalStateException("Lease " + leaseName + " is no longer held by node " + nodeId);
+        }
+    }
+
+    /**
+     * Take or renew a lease.
+     *
+     * @param leaseName the lease
+     * @return true if this node holds the lease
+     */
+    public boolean tryAcquire(String leaseName) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(leaseDuration));
+        boolean acquired = jobLeaseRepository.tryAcquire(leaseName, nodeId, now, expiresAt) > 0;
+        updateHeldUntil(leaseName, acquired, now, expiresAt);
+        return acquired;
+    }
+
+    private void updateHeldUntil(String leaseName, boolean acquired, LocalDateTime now, LocalDateTime expiresAt) {
+        synchronized (heldUntil) {
+            LocalDateTime previous = acquired ? heldUntil.put(leaseName, expiresAt) : heldUntil.remove(leaseName);
+            if (acquired && (previous == null || !now.isBefore(previous))) {
+                log.info("Node {} now holds lease {}", nodeId, leaseName);
+            } else if (!acquired && previous != null) {
+                log.warn("Node {} lost lease {}", nodeId, leaseName);
+            }
+        }
+    }
+
+    /**
+     * Give up a lease held by this node, another node can take it over right away.
+     *
+     * @param leaseName the lease
+     */
+    public void release(String leaseName) {
+        synchronized (heldUntil) {
+            heldUntil.remove(leaseName);
+        }
+        jobLeaseRepository.release(leaseName, nodeId, LocalDateTime.now());
+        log.info("Node {} released lease {}", nodeId, leaseName);
+    }
+
+    /**
+     * Record that this node is alive, for the leases to be shared between live nodes.
+     */
+    public void heartbeat() {
+        JobLeaseEntity heartbeat = new JobLeaseEntity();
+        heartbeat.setJobName(NODE_PREFIX + nodeId);
+        heartbeat.setOwnerId(nodeId);
+        heartbeat.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(leaseDuration)));
+        jobLeaseRepository.save(heartbeat);
+        // Forget nodes that have been gone for a while
+        jobLeaseRepository.deleteByJobNameStartingWithAndExpiresAtBefore(NODE_PREFIX, LocalDateTime.now().minusHours(1));
+    }
+
+    /**
+     * @return the number of nodes whose heartbeat has not expired, at least 1
+     */
+    public int countLiveNodes() {
+        return Math.max(1, (int) jobLeaseRepository.countByJobNameStartingWithAndExpiresAtAfter(NODE_PREFIX, LocalDateTime.now()));
+    }
+
+    @PreDestroy
+    public void releaseLeases() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (heldUntil) {
+            for (String leaseName : heldUntil.keySet()) {
+                try {
+                    jobLeaseRepository.release(leaseName, nodeId, LocalDateTime.now());
+                } catch (Exception e) {
+                    log.warn("Failed to release lease {}", leaseName, e);
+                }
+            }
+            heldUntil.clear();
+        }
+        try {
+            jobLeaseRepository.release(NODE_PREFIX + nodeId, nodeId, LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Failed to remove heartbeat of node {}", nodeId, e);
+        }
+    }
+}
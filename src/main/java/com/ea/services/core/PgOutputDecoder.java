@@ -0,0 +1,146 @@
+package com.ea.services.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Decoder of the pgoutput logical replication protocol (version 1).
+ * Relation messages are cached to name the columns of the following row changes; values are kept in their text form.
+ * Only the messages needed to follow row changes are decoded, the others are skipped.
+ */
+@Slf4j
+public class PgOutputDecoder {
+
+    public enum ChangeType {
+        INSERT, UPDATE, DELETE
+    }
+
+    /**
+     * A row change.
+     *
+     * @param table   the qualified table name, lower case (e.g. core.game)
+     * @param type    the kind of change
+     * @param columns    the new values by lower case column name, null for NULL values; the old values for deletes.
+     *                   Unchanged TOASTed values are left out
+     * @param oldColumns the old values of an update, only sent for tables with REPLICA IDENTITY FULL (or only the key
+     *                   columns when the key changed); null when the server sent none
+     */
+    public record RowChange(String table, ChangeType type, Map<String, String> columns, Map<String, String> oldColumns) {
+    }
+
+    public interface Handler {
+        void onChange(RowChange change);
+
+        /**
+         * @param endLsn the LSN right after the commit, to confirm once the transaction is processed
+         */
+        void onCommit(long endLsn);
+    }
+
+    private record Relation(String table, List<String> columns) {
+    }
+
+    private final Map<Integer, Relation> relations = new HashMap<>();
+
+    /**
+     * Decode a message and notify the handler.
+     *
+     * @param buffer  the message, as read from the replication stream
+     * @param handler the handler of row changes and commits
+     */
+    public void decode(ByteBuffer buffer, Handler handler) {
+        char type = (char) buffer.get();
+        switch (type) {
+            case 'R' -> decodeRelation(buffer);
+            case 'I' -> {
+                Relation relation = getRelation(buffer.getInt());
+                buffer.get(); // 'N'
+                handler.onChange(new RowChange(relation.table(), ChangeType.INSERT, readTuple(buffer, relation), null));
+            }
+            case 'U' -> {
+                Relation relation = getRelation(buffer.getInt());
+                char tupleType = (char) buffer.get();
+                Map<String, String> oldColumns = null;
+                if (tupleType == 'K' || tupleType == 'O') {
+                    // Old key or old row, followed by the new row
+                    oldColumns = readTuple(buffer, relation);
+                    buffer.get(); // 'N'
+                }
+                handler.onChange(new RowChange(relation.table(), ChangeType.UPDATE, readTuple(buffer, relation), oldColumns));
+            }
+            case 'D' -> {
+                Relation relation = getRelation(buffer.getInt());
+                buffer.get(); // 'K' or 'O'
+                handler.onChange(new RowChange(relation.table(), ChangeType.DELETE, readTuple(buffer, relation), null));
+            }
+            case 'C' -> {
+                buffer.get(); // flags
+                buffer.getLong(); // commit LSN
+                handler.onCommit(buffer.getLong());
+            }
+            // Begin, origin, type and truncate messages carry nothing the events need
+            case 'B', 'O', 'Y', 'T' -> {
+            }
+            default -> log.debug("Skipping unknown pgoutput message type {}", type);
+        }
+    }
+
+    private void decodeRelation(ByteBuffer buffer) {
+        int oid = buffer.getInt();
+        String namespace = readString(buffer);
+        String name = readString(buffer);
+        buffer.get(); // replica identity
+        short columnCount = buffer.getShort();
+        List<String> columns = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            buffer.get(); // flags
+            columns.add(readString(buffer).toLowerCase());
+            buffer.getInt(); // type OID
+            buffer.getInt(); // type modifier
+        }
+        relations.put(oid, new Relation((namespace + "." + name).toLowerCase(), columns));
+    }
+
+    private Relation getRelation(int oid) {
+        Relation relation = relations.get(oid);
+        if (relation == null) {
+            // The server always sends the relation before its first change in a session
+            throw new IllegalStateException("Unknown relation " + oid);
+        }
+        return relation;
+    }
+
+    private Map<String, String> readTuple(ByteBuffer buffer, Relation relation) {
+        short columnCount = buffer.getShort();
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < columnCount; i++) {
+            char kind = (char) buffer.get();
+            String column = relation.columns().get(i);
+            switch (kind) {
+                case 'n' -> values.put(column, null);
+                case 't' -> {
+                    byte[] value = new byte[buffer.getInt()];
+                    buffer.get(value);
+                    values.put(column, new String(value, StandardCharsets.UTF_8));
+                }
+                // 'u': unchanged TOASTed value, not sent
+                default -> {
+                }
+            }
+        }
+        return values;
+    }
+
+    private String readString(ByteBuffer buffer) {
+        int start = buffer.position();
+        while (buffer.get() != 0) {
+            // Strings are null-terminated
+        }
+        byte[] value = new byte[buffer.position() - start - 1];
+        buffer.get(start, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -4,47 +4,71 @@ import com.ea.entities.core.GameConnectionEntity;
 import com.ea.entities.core.GameEntity;
 import com.ea.entities.core.PersonaConnectionEntity;
 import com.ea.entities.discord.ChannelSubscriptionEntity;
+import com.ea.entities.discord.HeldEventEntity;
+import com.ea.entities.discord.OutboxEntity;
 import com.ea.entities.discord.ParamEntity;
-import com.ea.enums.Game;
+import com.ea.enums.EventType;
 import com.ea.enums.GameGenre;
+import com.ea.enums.LeasedJob;
 import com.ea.enums.Params;
 import com.ea.enums.SubscriptionType;
+import com.ea.model.CoreChanges;
 import com.ea.model.Event;
+import com.ea.model.Scoreboard;
 import com.ea.repositories.core.GameConnectionRepository;
 import com.ea.repositories.core.GameRepository;
 import com.ea.repositories.core.PersonaConnectionRepository;
+import com.ea.repositories.discord.HeldEventRepository;
+import com.ea.repositories.discord.OutboxRepository;
 import com.ea.repositories.discord.ParamRepository;
 import com.ea.services.discord.ChannelSubscriptionService;
 import com.ea.services.discord.DiscordBotService;
+import com.ea.services.discord.OutboxService;
 import com.ea.services.stats.MohhScoreboardService;
 import com.ea.services.stats.NfsScoreboardService;
 import com.ea.services.stats.NhlScoreboardService;
+import com.ea.utils.EventFormatUtils;
 import com.ea.utils.GameVersUtils;
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.File;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
-public class PollingService {
+public class PollingService implements SchedulingConfigurer {
     public static final String DATETIME_FORMAT = "yyyy-MM-dd HH:mm:ss.SSSSSS";
     public static final String PSP_MOH_07 = "PSP_MOH07";
     public static final String PSP_MOH_08 = "PSP_MOH08";
     public static final String WII_MOH_08 = "WII_MOH08";
     public static final List<String> MOH07_OR_MOH08 = List.of(PSP_MOH_07, PSP_MOH_08, WII_MOH_08);
+    // Same as the fetch size hint of the stream queries
+    private static final int STREAM_CLEAR_INTERVAL = 500;
     private final ParamRepository paramRepository;
     private final GameRepository gameRepository;
     private final GameConnectionRepository gameConnectionRepository;
@@ -54,13 +78,30 @@ public class PollingService {
     private final NhlScoreboardService nhlScoreboardService;
     private final DiscordBotService discordBotService;
     private final ChannelSubscriptionService channelSubscriptionService;
+    private final OutboxService outboxService;
+    private final OutboxRepository outboxRepository;
+    private final HeldEventRepository heldEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PresenceState presenceState;
+    private final AdaptiveTrigger eventPollingTrigger;
+    private final ScoreboardExecutor scoreboardExecutor;
+    private final ScoreboardAttempts scoreboardAttempts;
+    private final EventCompactor eventCompactor;
+    private final IngestionMetrics ingestionMetrics;
+    private final ReplicationEventSource replicationEventSource;
+    private final LeaseService leaseService;
+    private final GenreShardService genreShardService;
+    private final EntityManager entityManager;
     @Value("${dns.name}")
     private String dnsName;
-    private boolean enablePlayerEventsProcess = false;
     @Value("${services.events-enabled}")
     private boolean eventsEnabled;
     @Value("${services.bot-activity-enabled}")
     private boolean botActivityEnabled;
+    @Value("${services.events.catch-up-chunk}")
+    private long catchUpChunk;
+    @Value("${services.events.catch-up-horizon}")
+    private long catchUpHorizon;
 
     @PostConstruct
     @Scheduled(fixedDelay = 10000)
@@ -71,185 +112,594 @@ public class PollingService {
         }
         ParamEntity lastKnownIpEntity = paramRepository.findById(Params.LAST_KNOWN_IP.name()).orElse(null);
         String currentIp = lastKnownIpEntity != null ? lastKnownIpEntity.getParamValue() : "UNKNOWN";
-        int currentPlayersOnline = personaConnectionRepository.countPlayersOnline();
-        int currentPlayersInGame = gameConnectionRepository.countPlayersInGame();
+        int currentPlayersOnline = presenceState.countPlayersOnline();
+        int currentPlayersInGame = presenceState.countPlayersInGame();
         String activity = "🌐 " + currentPlayersOnline + " 🎮 " + currentPlayersInGame + " 💻 " + currentIp;
         discordBotService.updateActivity(activity);
     }
 
-    @Scheduled(fixedDelay = 10000)
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addTriggerTask(this::processDataSinceLastFetchTime, eventPollingTrigger);
+    }
+
     public void processDataSinceLastFetchTime() {
         if (!eventsEnabled) {
             log.debug("Events service is disabled");
             return;
         }
+        if (genreShardService.isEnabled()) {
+            processOwnedGenres();
+            return;
+        }
+        if (!leaseService.isLeader(LeasedJob.EVENTS)) {
+            log.debug("Events are processed by another node");
+            return;
+        }
         ParamEntity lastFetchTimeEntity = paramRepository.findById(Params.LAST_FETCH_TIME.name()).orElse(null);
         if (lastFetchTimeEntity != null) {
             LocalDateTime lastFetchTime = LocalDateTime.parse(lastFetchTimeEntity.getParamValue(), DateTimeFormatter.ofPattern(DATETIME_FORMAT));
-            LocalDateTime currentFetchTime = LocalDateTime.now();
+            // With change data capture, the changes streamed since the last tick replace the range queries
+            CoreChanges changes = replicationEventSource.isEnabled() ? replicationEventSource.poll() : null;
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime currentFetchTime = changes != null ? now : capToCatchUpChunk(lastFetchTime, now);
+            List<Long> unfinishedGameIds = new ArrayList<>();
+            try {
+                List<OutboxEntity> notifications = new ArrayList<>();
+                ScoreboardExecutor.Results<Scoreboard> rendered = renderScoreboards(scoreboardAttempts.withoutGivenUp(changes != null
+                        ? findFinishedGames(changes)
+                        : findFinishedGames(lastFetchTime, currentFetchTime, List.of(GameGenre.values()))));
+                List<Scoreboard> scoreboards = rendered.completed();
+                List<GameEntity> retriedGames = scoreboardAttempts.recordMisses(rendered.unfinished());
+                if (!retriedGames.isEmpty()) {
+                    if (changes != null) {
+                        // The LSN checkpoint covers the whole tick, the unfinished games come back with the next changes
+                        retriedGames.forEach(game -> unfinishedGameIds.add(game.getId()));
+                    } else {
+                        // Resume from the earliest unfinished game, the games that ended after it are rendered again
+                        currentFetchTime = retriedGames.stream().map(GameEntity::getEndTime).min(Comparator.naturalOrder()).orElseThrow();
+                        LocalDateTime resumeTime = currentFetchTime;
+                        scoreboards = scoreboards.stream()
+                                .filter(scoreboard -> scoreboard.endTime().isBefore(resumeTime))
+                                .toList();
+                    }
+                }
+                boolean caughtUp = currentFetchTime.equals(now) && (changes == null || !replicationEventSource.hasPending());
+                addScoreboardNotifications(notifications, scoreboards);
+                boolean activity = !scoreboards.isEmpty();
+                Set<GameGenre> allGenres = EnumSet.allOf(GameGenre.class);
+                List<Event> heldEvents = null;
+                if (changes != null || isWithinCatchUpHorizon(lastFetchTime, now)) {
+                    List<Event> events = changes != null
+                            ? withinCatchUpHorizon(findPlayerEvents(changes), now)
+                            : findPlayerEvents(lastFetchTime, currentFetchTime);
+                    heldEvents = addEventNotifications(notifications, events, allGenres, currentFetchTime);
+                    activity |= !events.isEmpty();
+                }
+                if (activity || !caughtUp) {
+                    eventPollingTrigger.recordActivity();
+                }
 
-            processScoreboard(lastFetchTime, currentFetchTime);
-            if (enablePlayerEventsProcess) {
-                processPlayerEvents(lastFetchTime, currentFetchTime);
-            } else {
-                enablePlayerEventsProcess = true;
+                // Notifications and checkpoints are committed together, the outbox dispatcher delivers them afterward
+                lastFetchTimeEntity.setParamValue(currentFetchTime.format(DateTimeFormatter.ofPattern(DATETIME_FORMAT)));
+                List<Event> finalHeldEvents = heldEvents;
+                transactionTemplate.executeWithoutResult(status -> {
+                    // Roll back if another node took the job over during the tick, it will process the window again
+                    leaseService.assertLeader(LeasedJob.EVENTS);
+                    outboxRepository.saveAll(notifications);
+                    if (finalHeldEvents != null) {
+                        saveHeldEvents(allGenres, finalHeldEvents);
+                    }
+                    paramRepository.save(lastFetchTimeEntity);
+                    if (changes != null && changes.getLsn() > 0) {
+                        paramRepository.save(replicationEventSource.checkpoint(changes));
+                    }
+                });
+            } catch (RuntimeException e) {
+                if (changes != null) {
+                    // Stream the uncommitted changes again on the next tick
+                    replicationEventSource.rewind();
+                }
+                throw e;
+            }
+            if (changes != null) {
+                replicationEventSource.acknowledge(changes);
+                replicationEventSource.retryEndedGames(unfinishedGameIds);
             }
-
-            lastFetchTimeEntity.setParamValue(currentFetchTime.format(DateTimeFormatter.ofPattern(DATETIME_FORMAT)));
-            paramRepository.save(lastFetchTimeEntity);
         }
     }
 
-    private void processScoreboard(LocalDateTime lastFetchTime, LocalDateTime currentFetchTime) {
-        // Process scoreboards for all game categories
-        for (GameGenre gameGenre : GameGenre.values()) {
-            List<String> versForGenre = GameVersUtils.getAllVersForGenre(gameGenre);
-            if (!versForGenre.isEmpty()) {
-                List<GameEntity> games = gameRepository.findByVersInAndEndTimeBetweenOrderByEndTimeAsc(versForGenre, lastFetchTime, currentFetchTime);
-                for (GameEntity game : games) {
-                    // Determine which scoreboard service to use based on gameGenre
-                    switch (gameGenre) {
-                        case FPS -> mohhScoreboardService.generateScoreboard(game);
-                        case HOCKEY -> nhlScoreboardService.generateScoreboard(game);
-                        case RACING -> nfsScoreboardService.generateScoreboard(game);
-                        // Other categories can be added here when their scoreboard services are implemented
-                        default -> {
-                        }
-                    }
-                }
+    /**
+     * Process the genres owned by this node when the genres are sharded between several nodes.
+     * Each genre has its own checkpoint, so that a genre moving to another node resumes where its previous owner
+     * stopped. The player events are queried once from the oldest checkpoint and filtered by genre.
+     */
+    private void processOwnedGenres() {
+        Set<GameGenre> ownedGenres = genreShardService.getOwnedGenres();
+        if (ownedGenres.isEmpty()) {
+            log.debug("No genre owned by this node");
+            return;
+        }
+        ParamEntity lastFetchTimeEntity = paramRepository.findById(Params.LAST_FETCH_TIME.name()).orElse(null);
+        if (lastFetchTimeEntity == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<GameGenre, ParamEntity> checkpoints = new EnumMap<>(GameGenre.class);
+        Map<GameGenre, LocalDateTime> lastFetchTimes = new EnumMap<>(GameGenre.class);
+        Map<GameGenre, LocalDateTime> currentFetchTimes = new EnumMap<>(GameGenre.class);
+        for (GameGenre genre : ownedGenres) {
+            // A genre without checkpoint starts from the global one, the checkpoint of the unsharded mode
+            ParamEntity checkpoint = paramRepository.findById(getCheckpointKey(genre)).orElseGet(() -> {
+                ParamEntity initial = new ParamEntity();
+                initial.setParamKey(getCheckpointKey(genre));
+                initial.setParamValue(lastFetchTimeEntity.getParamValue());
+                return initial;
+            });
+            checkpoints.put(genre, checkpoint);
+            LocalDateTime lastFetchTime = LocalDateTime.parse(checkpoint.getParamValue(), DateTimeFormatter.ofPattern(DATETIME_FORMAT));
+            lastFetchTimes.put(genre, lastFetchTime);
+            currentFetchTimes.put(genre, capToCatchUpChunk(lastFetchTime, now));
+        }
+
+        List<OutboxEntity> notifications = new ArrayList<>();
+        List<GameEntity> finishedGames = new ArrayList<>();
+        lastFetchTimes.forEach((genre, lastFetchTime) -> finishedGames.addAll(findFinishedGames(genre, lastFetchTime, currentFetchTimes.get(genre))));
+        finishedGames.sort(Comparator.comparing(GameEntity::getEndTime));
+        ScoreboardExecutor.Results<Scoreboard> rendered = renderScoreboards(scoreboardAttempts.withoutGivenUp(finishedGames));
+        List<Scoreboard> scoreboards = rendered.completed();
+        // Each genre resumes from its earliest unfinished game, the games of the genre that ended after it are rendered again
+        Map<GameGenre, LocalDateTime> resumeTimes = new EnumMap<>(GameGenre.class);
+        for (GameEntity game : scoreboardAttempts.recordMisses(rendered.unfinished())) {
+            GameGenre genre = GameVersUtils.getGenreForVers(game.getVers());
+            if (currentFetchTimes.containsKey(genre) && !resumeTimes.containsKey(genre)) {
+                // Unfinished games are in end time order, the first one of a genre is its earliest
+                resumeTimes.put(genre, game.getEndTime());
+            }
+        }
+        if (!resumeTimes.isEmpty()) {
+            currentFetchTimes.putAll(resumeTimes);
+            scoreboards = scoreboards.stream()
+                    .filter(scoreboard -> !resumeTimes.containsKey(scoreboard.gameGenre())
+                            || scoreboard.endTime().isBefore(resumeTimes.get(scoreboard.gameGenre())))
+                    .toList();
+        }
+        boolean caughtUp = currentFetchTimes.values().stream().allMatch(now::equals);
+        addScoreboardNotifications(notifications, scoreboards);
+        boolean activity = !scoreboards.isEmpty();
+        List<Event> heldEvents = null;
+        // Checked per genre, a genre taken over from another node resumes its recent checkpoint and announces its events
+        Set<GameGenre> announcedGenres = EnumSet.noneOf(GameGenre.class);
+        lastFetchTimes.forEach((genre, lastFetchTime) -> {
+            if (isWithinCatchUpHorizon(lastFetchTime, now)) {
+                announcedGenres.add(genre);
             }
+        });
+        if (!announcedGenres.isEmpty()) {
+            List<LocalDateTime> announcedStarts = announcedGenres.stream().map(lastFetchTimes::get).toList();
+            List<LocalDateTime> announcedEnds = announcedGenres.stream().map(currentFetchTimes::get).toList();
+            List<Event> events = findPlayerEvents(Collections.min(announcedStarts), Collections.max(announcedEnds)).stream()
+                    .filter(event -> event.gameGenre() != null && announcedGenres.contains(event.gameGenre())
+                            && !event.time().isBefore(lastFetchTimes.get(event.gameGenre()))
+                            && !event.time().isAfter(currentFetchTimes.get(event.gameGenre())))
+                    .toList();
+            // Events are held until no genre can still receive earlier ones
+            heldEvents = addEventNotifications(notifications, events, announcedGenres, Collections.min(announcedEnds));
+            activity |= !events.isEmpty();
         }
+        if (activity || !caughtUp) {
+            eventPollingTrigger.recordActivity();
+        }
+
+        checkpoints.forEach((genre, checkpoint) ->
+                checkpoint.setParamValue(currentFetchTimes.get(genre).format(DateTimeFormatter.ofPattern(DATETIME_FORMAT))));
+        List<Event> finalHeldEvents = heldEvents;
+        transactionTemplate.executeWithoutResult(status -> {
+            // Roll back if another node took a genre over during the tick, it will process the window again
+            checkpoints.keySet().forEach(genreShardService::assertOwner);
+            outboxRepository.saveAll(notifications);
+            if (finalHeldEvents != null) {
+                saveHeldEvents(announcedGenres, finalHeldEvents);
+            }
+            paramRepository.saveAll(checkpoints.values());
+        });
     }
 
-    private void processPlayerEvents(LocalDateTime lastFetchTime, LocalDateTime currentFetchTime) {
+    /**
+     * Bound the window of a tick when catching up after a downtime, so that its rows fit in memory.
+     * The checkpoint moves one chunk per tick and the trigger stays at its active delay until caught up.
+     *
+     * @param lastFetchTime the checkpoint
+     * @param now           the current time
+     * @return the end of the window to process
+     */
+    private LocalDateTime capToCatchUpChunk(LocalDateTime lastFetchTime, LocalDateTime now) {
+        if (catchUpChunk <= 0) {
+            return now;
+        }
+        LocalDateTime chunkEnd = lastFetchTime.plus(Duration.ofMillis(catchUpChunk));
+        if (chunkEnd.isBefore(now)) {
+            log.info("Catching up events from {} to {}", lastFetchTime, chunkEnd);
+            return chunkEnd;
+        }
+        return now;
+    }
 
-        List<PersonaConnectionEntity> personaLogins = personaConnectionRepository.findPersonaLogins(lastFetchTime, currentFetchTime);
-        List<PersonaConnectionEntity> personaLogouts = personaConnectionRepository.findPersonaLogouts(lastFetchTime, currentFetchTime);
+    /**
+     * Whether the player events following a checkpoint are announced. They are only skipped after a downtime, when the
+     * checkpoint is older than the catch-up horizon: the events of the downtime are not announced, only its scoreboards.
+     * A node taking the job over from another one resumes a recent checkpoint and announces them.
+     *
+     * @param lastFetchTime the checkpoint
+     * @param now           the current time
+     * @return true if the player events of the window are announced
+     */
+    private boolean isWithinCatchUpHorizon(LocalDateTime lastFetchTime, LocalDateTime now) {
+        return !lastFetchTime.isBefore(now.minus(Duration.ofMillis(catchUpHorizon)));
+    }
 
-        List<GameConnectionEntity> rawMohhGameJoining = gameConnectionRepository.findMohhPlayerJoins(lastFetchTime, currentFetchTime, MOH07_OR_MOH08);
-        List<GameConnectionEntity> mohhGameLeaving = gameConnectionRepository.findMohhPlayerLeaves(lastFetchTime, currentFetchTime, MOH07_OR_MOH08);
+    /**
+     * Drop the events older than the catch-up horizon. The replication slot resumes where it stopped, so the changes
+     * streamed after a downtime are filtered by their own time rather than by the checkpoint.
+     *
+     * @param events the events of the streamed changes
+     * @param now    the current time
+     * @return the events to announce
+     */
+    private List<Event> withinCatchUpHorizon(List<Event> events, LocalDateTime now) {
+        List<Event> recentEvents = events.stream()
+                .filter(event -> isWithinCatchUpHorizon(event.time(), now))
+                .toList();
+        if (recentEvents.size() < events.size()) {
+            log.info("Skipping {} player events older than the catch-up horizon", events.size() - recentEvents.size());
+        }
+        return recentEvents;
+    }
 
-        List<GameConnectionEntity> notMohhGameJoining = gameConnectionRepository.findNotMohhPlayerJoins(lastFetchTime, currentFetchTime, MOH07_OR_MOH08);
-        List<GameConnectionEntity> notMohhGameLeaving = gameConnectionRepository.findNotMohhPlayerLeaves(lastFetchTime, currentFetchTime, MOH07_OR_MOH08);
+    private static String getCheckpointKey(GameGenre gameGenre) {
+        return Params.LAST_FETCH_TIME.name() + "_" + gameGenre.name();
+    }
 
-        // Filter out map rotation joins: if there is a previous GameConnectionEntity for the same personaConnection
-        // where previousReport.endTime == previousReport.game.endTime and previousReport.endTime == this.startTime, skip
-        List<GameConnectionEntity> mohhGameJoining = new ArrayList<>();
-        for (GameConnectionEntity join : rawMohhGameJoining) {
-            PersonaConnectionEntity personaConn = join.getPersonaConnection();
-            LocalDateTime joinStart = join.getStartTime();
-            // Find previous report for this personaConnection that ends exactly at this join's start time
-            GameConnectionEntity prev = gameConnectionRepository
-                    .findFirstByPersonaConnectionAndEndTimeOrderByEndTimeDesc(personaConn, joinStart);
-            if (prev != null && prev.getEndTime() != null && prev.getGame() != null && prev.getEndTime().equals(prev.getGame().getEndTime())) {
-                // This is a map rotation, skip
+    private void addScoreboardNotifications(List<OutboxEntity> notifications, List<Scoreboard> scoreboards) {
+        for (Scoreboard scoreboard : scoreboards) {
+            if (scoreboard.imageFiles().isEmpty()) {
                 continue;
             }
-            mohhGameJoining.add(join);
+            List<String> channelIds = getSubscribedChannelIds(SubscriptionType.SCOREBOARD, scoreboard.gameGenre());
+            notifications.addAll(outboxService.createImages(channelIds, scoreboard.imageFiles(), null,
+                    scoreboard.gameGenre(), scoreboard.endTime()));
         }
+    }
 
-        List<GameConnectionEntity> allGameJoining = Stream.concat(mohhGameJoining.stream(), notMohhGameJoining.stream()).toList();
-        List<GameConnectionEntity> allGameLeaving = Stream.concat(mohhGameLeaving.stream(), notMohhGameLeaving.stream()).toList();
+    /**
+     * Compact the events of a tick with the events held by the previous one, and add the released events to the outbox.
+     *
+     * @param notifications    the notifications of the tick
+     * @param events           the new events
+     * @param gameGenres       the genres processed by the tick
+     * @param currentFetchTime the end of the tick's fetch window
+     * @return the events still held, to commit with the checkpoint
+     */
+    private List<Event> addEventNotifications(List<OutboxEntity> notifications, List<Event> events, Collection<GameGenre> gameGenres,
+                                              LocalDateTime currentFetchTime) {
+        // Hold events for the compaction window and drop flapping connections. The held events are read back from the
+        // database rather than kept in memory, so that they survive a restart or a failover like the checkpoint does.
+        List<Event> heldEvents = heldEventRepository.findByGameGenreIn(gameGenres).stream()
+                .map(this::toEvent)
+                .toList();
+        List<Event> knownGenreEvents = events.stream()
+                .filter(event -> event.gameGenre() != null)
+                .toList();
+        EventCompactor.Compaction compaction = eventCompactor.compact(heldEvents, knownGenreEvents, currentFetchTime);
 
-        // Group events by game genre for targeted distribution
-        List<Event> events = new ArrayList<>();
+        // Send events grouped by genre to respective subscribers
+        EventFormatUtils.groupByGenre(compaction.released()).forEach((genre, genreEvents) -> {
+            List<String> channelIds = getSubscribedChannelIds(SubscriptionType.LOGS, genre);
+            // Split at the Discord limit, events are sorted so the first one of each message is its oldest
+            for (List<Event> messageEvents : EventFormatUtils.partitionMessages(genreEvents)) {
+                notifications.addAll(outboxService.createMessages(channelIds, EventFormatUtils.formatMessage(messageEvents),
+                        genre, messageEvents.get(0).time()));
+            }
+        });
+        return compaction.held();
+    }
 
-        // Process logins - group by genre
-        for (PersonaConnectionEntity login : personaLogins) {
-            GameGenre genre = GameVersUtils.getGenreForVers(login.getVers());
-            String persona = login.getPersona().getPers().replace("\"", "");
-            String gameName = GameVersUtils.getNamesForGenre(genre)
-                    .stream()
-                    .filter(name -> Game.findByVers(login.getVers()) != null && Game.findByVers(login.getVers()).getName().equals(name))
-                    .findFirst()
-                    .orElse(login.getVers());
-
-            Event event = new Event(
-                    login.getId(),
-                    login.getStartTime(),
-                    "🟢 `" + gameName + "` **" + persona + "** connected",
-                    genre
-            );
-            events.add(event);
-        }
+    private void saveHeldEvents(Collection<GameGenre> gameGenres, List<Event> heldEvents) {
+        heldEventRepository.deleteByGameGenreIn(gameGenres);
+        heldEventRepository.saveAll(heldEvents.stream().map(this::toHeldEventEntity).toList());
+    }
 
-        // Process logouts - group by genre
-        for (PersonaConnectionEntity logout : personaLogouts) {
-            GameGenre genre = GameVersUtils.getGenreForVers(logout.getVers());
-            String persona = logout.getPersona().getPers().replace("\"", "");
-            String gameName = GameVersUtils.getNamesForGenre(genre)
-                    .stream()
-                    .filter(name -> Game.findByVers(logout.getVers()) != null && Game.findByVers(logout.getVers()).getName().equals(name))
-                    .findFirst()
-                    .orElse(logout.getVers());
-
-            Event event = new Event(
-                    logout.getId(),
-                    logout.getEndTime(),
-                    "🔴 `" + gameName + "` **" + persona + "** disconnected",
-                    genre
-            );
-            events.add(event);
-        }
+    private List<String> getSubscribedChannelIds(SubscriptionType subscriptionType, GameGenre gameGenre) {
+        return channelSubscriptionService.getAllByTypeAndGenre(subscriptionType, gameGenre).stream()
+                .map(ChannelSubscriptionEntity::getChannelId)
+                .toList();
+    }
 
-        // Process game joins and leaves with genre grouping
-        for (GameConnectionEntity join : allGameJoining) {
-            GameGenre genre = GameVersUtils.getGenreForVers(join.getPersonaConnection().getVers());
-            String persona = join.getPersonaConnection().getPersona().getPers().replace("\"", "");
-            String gameName = join.getGame().getName().replace("\"", "");
-            String gameDisplayName = Game.findByVers(join.getPersonaConnection().getVers()) != null ?
-                    Game.findByVers(join.getPersonaConnection().getVers()).getName() : join.getPersonaConnection().getVers();
-
-            Event event = new Event(
-                    join.getId(),
-                    join.getStartTime(),
-                    "➡️ `" + gameDisplayName + "` **" + persona + "** joined game `" + gameName + "`",
-                    genre
-            );
-            events.add(event);
+    /**
+     * Find the games that ended in the time range, bounds included.
+     * Also used by the {@link ReplayService} to render past games.
+     *
+     * @param start      the start of the time range
+     * @param end        the end of the time range
+     * @param gameGenres the genres of the games to find
+     * @return the finished games, by end time within each genre
+     */
+    public List<GameEntity> findFinishedGames(LocalDateTime start, LocalDateTime end, Collection<GameGenre> gameGenres) {
+        // Collect finished games for the requested game categories
+        List<GameEntity> finishedGames = new ArrayList<>();
+        for (GameGenre gameGenre : gameGenres) {
+            finishedGames.addAll(findFinishedGames(gameGenre, start, end));
         }
+        return finishedGames;
+    }
 
-        for (GameConnectionEntity leave : allGameLeaving) {
-            GameGenre genre = GameVersUtils.getGenreForVers(leave.getPersonaConnection().getVers());
-            String persona = leave.getPersonaConnection().getPersona().getPers().replace("\"", "");
-            String gameName = leave.getGame().getName().replace("\"", "");
-            String gameDisplayName = Game.findByVers(leave.getPersonaConnection().getVers()) != null ?
-                    Game.findByVers(leave.getPersonaConnection().getVers()).getName() : leave.getPersonaConnection().getVers();
-
-            Event event = new Event(
-                    leave.getId(),
-                    leave.getEndTime(),
-                    "⬅️ `" + gameDisplayName + "` **" + persona + "** left game `" + gameName + "`",
-                    genre
-            );
-            events.add(event);
+    private List<GameEntity> findFinishedGames(GameGenre gameGenre, LocalDateTime start, LocalDateTime end) {
+        List<String> versForGenre = GameVersUtils.getAllVersForGenre(gameGenre);
+        if (versForGenre.isEmpty()) {
+            return List.of();
         }
+        long queryStart = System.nanoTime();
+        List<GameEntity> finishedGames = gameRepository.findByVersInAndEndTimeBetweenOrderByEndTimeAsc(versForGenre, start, end);
+        ingestionMetrics.recordStage(IngestionMetrics.STAGE_GAME_QUERY, gameGenre, Duration.ofNanos(System.nanoTime() - queryStart));
+        return finishedGames;
+    }
 
-        Collections.sort(events);
+    /**
+     * Find the games whose end was streamed from the replication slot.
+     *
+     * @param changes the changes since the last tick
+     * @return the finished games of a known genre, by end time
+     */
+    private List<GameEntity> findFinishedGames(CoreChanges changes) {
+        long queryStart = System.nanoTime();
+        List<GameEntity> finishedGames = gameRepository.findAllById(changes.getEndedGameIds()).stream()
+                .filter(game -> game.getEndTime() != null && GameVersUtils.getGenreForVers(game.getVers()) != null)
+                .sorted(Comparator.comparing(GameEntity::getEndTime))
+                .toList();
+        ingestionMetrics.recordStage(IngestionMetrics.STAGE_GAME_QUERY, GameGenre.ALL, Duration.ofNanos(System.nanoTime() - queryStart));
+        return finishedGames;
+    }
 
-        // Send events grouped by genre to respective subscribers
-        for (GameGenre genre : GameGenre.values()) {
-            List<Event> genreEvents = events.stream()
-                    .filter(event -> event.getGameGenre() == genre)
-                    .toList();
+    /**
+     * Render the scoreboards of finished games.
+     * Also used by the {@link ReplayService} to render past games.
+     *
+     * @param finishedGames the finished games
+     * @return one scoreboard per finished game whose processing completed, without images when it was skipped,
+     * and the games cancelled at the tick deadline
+     */
+    public ScoreboardExecutor.Results<Scoreboard> renderScoreboards(List<GameEntity> finishedGames) {
+        // Each game is processed independently so a slow or failing one doesn't hold back the others
+        return scoreboardExecutor.forEachGame(finishedGames, this::generateScoreboard);
+    }
+
+    /**
+     * Render the scoreboards of finished games with a deadline other than the tick one.
+     *
+     * @param finishedGames the finished games
+     * @param deadline      the longest time to wait for the scoreboards
+     * @return one scoreboard per finished game whose processing completed, and the games cancelled at the deadline
+     */
+    public ScoreboardExecutor.Results<Scoreboard> renderScoreboards(List<GameEntity> finishedGames, Duration deadline) {
+        return scoreboardExecutor.forEachGame(finishedGames, this::generateScoreboard, deadline);
+    }
 
-            if (!genreEvents.isEmpty()) {
-                String message = String.join("\n", genreEvents.stream().map(Event::getMessage).toList());
-                List<ChannelSubscriptionEntity> logSubs = channelSubscriptionService.getAllByTypeAndGenre(SubscriptionType.LOGS, genre);
-                List<String> channelIds = logSubs.stream().map(ChannelSubscriptionEntity::getChannelId).toList();
-                if (!channelIds.isEmpty()) {
-                    discordBotService.sendMessage(channelIds, message);
+    private Scoreboard generateScoreboard(GameEntity game) {
+        GameGenre gameGenre = GameVersUtils.getGenreForVers(game.getVers());
+        if (gameGenre == null) {
+            log.warn("Unknown game genre for VERS: {}, skipping scoreboard for game #{}", game.getVers(), game.getId());
+            return new Scoreboard(game.getId(), null, game.getEndTime(), List.of());
+        }
+        long renderStart = System.nanoTime();
+        // Determine which scoreboard service to use based on gameGenre
+        List<File> imageFiles = switch (gameGenre) {
+            case FPS -> mohhScoreboardService.generateScoreboard(game);
+            case HOCKEY -> nhlScoreboardService.generateScoreboard(game);
+            case RACING -> nfsScoreboardService.generateScoreboard(game);
+            // Other categories can be added here when their scoreboard services are implemented
+            default -> List.of();
+        };
+        ingestionMetrics.recordStage(IngestionMetrics.STAGE_RENDERING, gameGenre, Duration.ofNanos(System.nanoTime() - renderStart));
+        return new Scoreboard(game.getId(), gameGenre, game.getEndTime(), imageFiles);
+    }
+
+    /**
+     * Find the player events (connections, game joins and leaves) that happened in the time range.
+     * Also used by the {@link ReplayService} to replay past events.
+     *
+     * @param start the start of the time range
+     * @param end   the end of the time range
+     * @return the events, unsorted
+     */
+    public List<Event> findPlayerEvents(LocalDateTime start, LocalDateTime end) {
+        // Rows are streamed through cursors and mapped to events as they are read, so the entities of a large window
+        // are never all loaded at once. The event query stage covers both reading and mapping.
+        return transactionTemplate.execute(status -> {
+            long queryStart = System.nanoTime();
+            List<Event> events = new ArrayList<>();
+            streamEvents(personaConnectionRepository.streamPersonaLogins(start, end), this::toLoginEvent, events);
+            streamEvents(personaConnectionRepository.streamPersonaLogouts(start, end), this::toLogoutEvent, events);
+            streamEvents(gameConnectionRepository.streamMohhPlayerJoins(start, end, MOH07_OR_MOH08)
+                    .filter(join -> !isMapRotation(join)), this::toJoinEvent, events);
+            streamEvents(gameConnectionRepository.streamNotMohhPlayerJoins(start, end, MOH07_OR_MOH08), this::toJoinEvent, events);
+            streamEvents(gameConnectionRepository.streamMohhPlayerLeaves(start, end, MOH07_OR_MOH08), this::toLeaveEvent, events);
+            streamEvents(gameConnectionRepository.streamNotMohhPlayerLeaves(start, end, MOH07_OR_MOH08), this::toLeaveEvent, events);
+            ingestionMetrics.recordStage(IngestionMetrics.STAGE_EVENT_QUERY, GameGenre.ALL, Duration.ofNanos(System.nanoTime() - queryStart));
+            return events;
+        });
+    }
+
+    private <T> void streamEvents(Stream<T> rows, Function<T, Event> mapper, List<Event> events) {
+        try (rows) {
+            int[] count = {0};
+            rows.forEach(row -> {
+                events.add(mapper.apply(row));
+                // Detach the rows already mapped, in step with the fetch size of the stream queries
+                if (++count[0] % STREAM_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
                 }
-            }
+            });
         }
     }
 
+    /**
+     * Find the player events of the changes streamed from the replication slot.
+     * Rows are loaded by ID and filtered the same way as the range queries.
+     *
+     * @param changes the changes since the last tick
+     * @return the events, unsorted
+     */
+    private List<Event> findPlayerEvents(CoreChanges changes) {
+        long queryStart = System.nanoTime();
+        List<PersonaConnectionEntity> personaLogins = personaConnectionRepository.findAllById(changes.getLoginIds()).stream()
+                .filter(login -> !login.isHost())
+                .toList();
+        List<PersonaConnectionEntity> personaLogouts = personaConnectionRepository.findAllById(changes.getLogoutIds()).stream()
+                .filter(logout -> !logout.isHost() && logout.getEndTime() != null)
+                .toList();
+        List<GameConnectionEntity> joins = gameConnectionRepository.findAllById(changes.getJoinIds()).stream()
+                .filter(join -> !join.getPersonaConnection().isHost())
+                .toList();
+        List<GameConnectionEntity> leaves = gameConnectionRepository.findAllById(changes.getLeaveIds()).stream()
+                .filter(leave -> !leave.getPersonaConnection().isHost() && leave.getEndTime() != null)
+                .toList();
+
+        List<GameConnectionEntity> rawMohhGameJoining = joins.stream()
+                .filter(join -> isMohh(join) && (join.getEndTime() == null
+                        || (join.getGame().getEndTime() != null && !join.getEndTime().equals(join.getGame().getEndTime()))))
+                .toList();
+        List<GameConnectionEntity> notMohhGameJoining = joins.stream()
+                .filter(join -> !isMohh(join) && join.getEndTime() == null)
+                .toList();
+        List<GameConnectionEntity> mohhGameLeaving = leaves.stream()
+                .filter(leave -> isMohh(leave) && (leave.getGame().getEndTime() == null || !leave.getEndTime().equals(leave.getGame().getEndTime())))
+                .toList();
+        List<GameConnectionEntity> notMohhGameLeaving = leaves.stream()
+                .filter(leave -> !isMohh(leave))
+                .toList();
+        return buildPlayerEvents(personaLogins, personaLogouts, rawMohhGameJoining, mohhGameLeaving, notMohhGameJoining,
+                notMohhGameLeaving, queryStart);
+    }
+
+    private boolean isMohh(GameConnectionEntity gameConnection) {
+        return MOH07_OR_MOH08.contains(gameConnection.getPersonaConnection().getVers());
+    }
+
+    private List<Event> buildPlayerEvents(List<PersonaConnectionEntity> personaLogins, List<PersonaConnectionEntity> personaLogouts,
+                                          List<GameConnectionEntity> rawMohhGameJoining, List<GameConnectionEntity> mohhGameLeaving,
+                                          List<GameConnectionEntity> notMohhGameJoining, List<GameConnectionEntity> notMohhGameLeaving,
+                                          long queryStart) {
+        List<GameConnectionEntity> mohhGameJoining = rawMohhGameJoining.stream()
+                .filter(join -> !isMapRotation(join))
+                .toList();
+
+        List<GameConnectionEntity> allGameJoining = Stream.concat(mohhGameJoining.stream(), notMohhGameJoining.stream()).toList();
+        List<GameConnectionEntity> allGameLeaving = Stream.concat(mohhGameLeaving.stream(), notMohhGameLeaving.stream()).toList();
+        long processingStart = System.nanoTime();
+        ingestionMetrics.recordStage(IngestionMetrics.STAGE_EVENT_QUERY, GameGenre.ALL, Duration.ofNanos(processingStart - queryStart));
+
+        List<Event> events = new ArrayList<>();
+        personaLogins.forEach(login -> events.add(toLoginEvent(login)));
+        personaLogouts.forEach(logout -> events.add(toLogoutEvent(logout)));
+        allGameJoining.forEach(join -> events.add(toJoinEvent(join)));
+        allGameLeaving.forEach(leave -> events.add(toLeaveEvent(leave)));
+        ingestionMetrics.recordStage(IngestionMetrics.STAGE_PROCESSING, GameGenre.ALL, Duration.ofNanos(System.nanoTime() - processingStart));
+        return events;
+    }
+
+    /**
+     * Filter out map rotation joins: if there is a previous GameConnectionEntity for the same personaConnection
+     * where previousReport.endTime == previousReport.game.endTime and previousReport.endTime == this.startTime, skip
+     */
+    private boolean isMapRotation(GameConnectionEntity join) {
+        // Find previous report for this personaConnection that ends exactly at this join's start time
+        GameConnectionEntity prev = gameConnectionRepository
+                .findFirstByPersonaConnectionAndEndTimeOrderByEndTimeDesc(join.getPersonaConnection(), join.getStartTime());
+        return prev != null && prev.getEndTime() != null && prev.getGame() != null && prev.getEndTime().equals(prev.getGame().getEndTime());
+    }
+
+    private Event toLoginEvent(PersonaConnectionEntity login) {
+        return new Event(
+                login.getId(),
+                login.getStartTime(),
+                EventType.CONNECTED,
+                GameVersUtils.getGenreForVers(login.getVers()),
+                login.getPersona().getPers().replace("\"", ""),
+                GameVersUtils.getDisplayNameForVers(login.getVers()),
+                null
+        );
+    }
+
+    private Event toLogoutEvent(PersonaConnectionEntity logout) {
+        return new Event(
+                logout.getId(),
+                logout.getEndTime(),
+                EventType.DISCONNECTED,
+                GameVersUtils.getGenreForVers(logout.getVers()),
+                logout.getPersona().getPers().replace("\"", ""),
+                GameVersUtils.getDisplayNameForVers(logout.getVers()),
+                null
+        );
+    }
+
+    private Event toJoinEvent(GameConnectionEntity join) {
+        return new Event(
+                join.getId(),
+                join.getStartTime(),
+                EventType.JOINED_GAME,
+                GameVersUtils.getGenreForVers(join.getPersonaConnection().getVers()),
+                join.getPersonaConnection().getPersona().getPers().replace("\"", ""),
+                GameVersUtils.getDisplayNameForVers(join.getPersonaConnection().getVers()),
+                join.getGame().getName().replace("\"", "")
+        );
+    }
+
+    private Event toLeaveEvent(GameConnectionEntity leave) {
+        return new Event(
+                leave.getId(),
+                leave.getEndTime(),
+                EventType.LEFT_GAME,
+                GameVersUtils.getGenreForVers(leave.getPersonaConnection().getVers()),
+                leave.getPersonaConnection().getPersona().getPers().replace("\"", ""),
+                GameVersUtils.getDisplayNameForVers(leave.getPersonaConnection().getVers()),
+                leave.getGame().getName().replace("\"", "")
+        );
+    }
+
+    private HeldEventEntity toHeldEventEntity(Event event) {
+        HeldEventEntity heldEvent = new HeldEventEntity();
+        heldEvent.setEventId(event.id());
+        heldEvent.setEventTime(event.time());
+        heldEvent.setEventType(event.type());
+        heldEvent.setGameGenre(event.gameGenre());
+        heldEvent.setPersona(event.persona());
+        heldEvent.setGameTitle(event.gameTitle());
+        heldEvent.setGameName(event.gameName());
+        return heldEvent;
+    }
+
+    private Event toEvent(HeldEventEntity heldEvent) {
+        return new Event(
+                heldEvent.getEventId(),
+                heldEvent.getEventTime(),
+                heldEvent.getEventType(),
+                heldEvent.getGameGenre(),
+                heldEvent.getPersona(),
+                heldEvent.getGameTitle(),
+                heldEvent.getGameName()
+        );
+    }
+
     @Scheduled(cron = "0 0 0,12 * * ?")
     public void processIpChange() throws UnknownHostException {
         if (!botActivityEnabled) {
             log.debug("Bot activity is disabled, skipping IP change verification");
             return;
         }
+        if (!leaseService.isLeader(LeasedJob.IP_CHECK)) {
+            log.debug("IP change verification is done by another node");
+            return;
+        }
         ParamEntity lastKnownIpEntity = paramRepository.findById(Params.LAST_KNOWN_IP.name()).orElse(null);
         if (lastKnownIpEntity != null) {
             String lastKnownIp = lastKnownIpEntity.getParamValue();
@@ -0,0 +1,408 @@
+package com.ea.services.core;
+
+import com.ea.enums.Game;
+import com.ea.enums.GameGenre;
+import com.ea.model.LiveGame;
+import com.ea.model.LiveGameConnection;
+import com.ea.model.LiveSession;
+import com.ea.repositories.core.GameConnectionRepository;
+import com.ea.repositories.core.GameRepository;
+import com.ea.repositories.core.PersonaConnectionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory model of who is online and who is in which game.
+ * Loaded once from the database, then kept current from the start/end time deltas of the core tables
+ * (the same columns the event processor reads), and fully reloaded periodically to correct any drift.
+ * Counts and status views are served from memory without hitting the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PresenceState {
+
+    private final PersonaConnectionRepository personaConnectionRepository;
+    private final GameConnectionRepository gameConnectionRepository;
+    private final GameRepository gameRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes resyncs and refreshes, which run on different scheduler threads: a refresh reading its window before a
+    // resync and applying it after would move the watermark back
+    private final Lock syncLock = new ReentrantLock();
+
+    private final Map<Long, LiveSession> sessions = new HashMap<>();
+    private final Map<Long, LiveGame> games = new HashMap<>();
+    private final Map<Long, LiveGameConnection> gameConnections = new HashMap<>();
+    // Open connections to games that are not live, only kept to leave their player out of the lobby
+    private final Map<Long, LiveGameConnection> detachedConnections = new HashMap<>();
+    private final Map<Long, Set<Long>> connectionsByGame = new HashMap<>();
+    private final Map<Long, Set<Long>> connectionsBySession = new HashMap<>();
+    private final Map<Game, Set<Long>> sessionsByGame = new EnumMap<>(Game.class);
+    private final Map<Game, Set<Long>> gamesByGame = new EnumMap<>(Game.class);
+
+    // Incremented whenever the presence of a genre changes, ALL on any change
+    private final Map<GameGenre, Long> versions = new EnumMap<>(GameGenre.class);
+
+    private LocalDateTime watermark;
+
+    /**
+     * Reload the whole state from the database.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${services.presence.resync-interval}", initialDelayString = "${services.presence.resync-interval}")
+    public void resync() {
+        syncLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<LiveSession> liveSessions = personaConnectionRepository.findLiveSessions();
+            List<LiveGame> liveGames = gameRepository.findLiveGames();
+            List<LiveGameConnection> liveGameConnections = gameConnectionRepository.findLiveGameConnections();
+
+            lock.writeLock().lock();
+            try {
+                sessions.clear();
+                games.clear();
+                gameConnections.clear();
+                detachedConnections.clear();
+                connectionsByGame.clear();
+                connectionsBySession.clear();
+                sessionsByGame.clear();
+                gamesByGame.clear();
+                liveSessions.forEach(this::putSession);
+                liveGames.forEach(this::putGame);
+                liveGameConnections.forEach(this::putGameConnection);
+                // Whatever drift the resync corrected, every genre may have changed
+                for (GameGenre genre : GameGenre.values()) {
+                    versions.merge(genre, 1L, Long::sum);
+                }
+                watermark = now;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("Presence state resynced: {} sessions, {} games, {} game connections",
+                    liveSessions.size(), liveGames.size(), liveGameConnections.size());
+        } catch (Exception e) {
+            log.error("Failed to resync presence state", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Apply the changes that happened since the last refresh or resync.
+     */
+    @Scheduled(fixedDelayString = "${services.presence.refresh-interval}")
+    public void refresh() {
+        syncLock.lock();
+        try {
+            // Only written under the sync lock
+            LocalDateTime from = watermark;
+            if (from == null) {
+                resync();
+                return;
+            }
+            LocalDateTime to = LocalDateTime.now();
+            List<LiveSession> startedSessions = personaConnectionRepository.findLiveSessionsStartedBetween(from, to);
+            List<LiveGame> startedGames = gameRepository.findLiveGamesStartedBetween(from, to);
+            List<LiveGameConnection> startedGameConnections = gameConnectionRepository.findLiveGameConnectionsStartedBetween(from, to);
+            List<Long> endedGameConnectionIds = gameConnectionRepository.findGameConnectionIdsEndedBetween(from, to);
+            List<Long> endedGameIds = gameRepository.findGameIdsEndedBetween(from, to);
+            List<Long> endedSessionIds = personaConnectionRepository.findSessionIdsEndedBetween(from, to);
+            Set<Long> startedGameIds = new HashSet<>(gameRepository.findStartedActiveGameIds());
+
+            lock.writeLock().lock();
+            try {
+                // Additions first, so that rows opened and closed within the same window end up removed
+                startedSessions.forEach(this::putSession);
+                startedGames.forEach(this::putGame);
+                startedGameConnections.forEach(this::putGameConnection);
+                endedGameConnectionIds.forEach(this::removeGameConnection);
+                endedGameIds.forEach(this::removeGame);
+                endedSessionIds.forEach(this::removeSession);
+                games.values().forEach(game -> {
+                    boolean started = startedGameIds.contains(game.getId());
+                    if (game.isStarted() != started) {
+                        game.setStarted(started);
+                        markChanged(Game.findByServerVers(game.getVers()));
+                    }
+                });
+                watermark = to;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh presence state", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Count online players (hosts excluded).
+     */
+    public int countPlayersOnline() {
+        lock.readLock().lock();
+        try {
+            return (int) sessions.values().stream().filter(session -> !session.isHost()).count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count players in game (hosts excluded).
+     */
+    public int countPlayersInGame() {
+        lock.readLock().lock();
+        try {
+            return (int) gameConnections.values().stream().filter(gc -> !gc.isSessionHost()).count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the players connected to a game's lobby but not participating in any game (hosts excluded). A player still
+     * connected to a game that ended is not in the lobby either.
+     *
+     * @param game the game to look up
+     * @return lobby players, in connection order
+     */
+    public List<LiveSession> getLobbyPlayers(Game game) {
+        lock.readLock().lock();
+        try {
+            return sessionsByGame.getOrDefault(game, Set.of()).stream()
+                    .sorted()
+                    .map(sessions::get)
+                    .filter(session -> !session.isHost() && !connectionsBySession.containsKey(session.getId()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the active games of a game, ordered by start time.
+     *
+     * @param game the game to look up
+     * @return active games
+     */
+    public List<LiveGame> getActiveGames(Game game) {
+        lock.readLock().lock();
+        try {
+            return gamesByGame.getOrDefault(game, Set.of()).stream()
+                    .map(games::get)
+                    .sorted(Comparator.comparing(LiveGame::getStartTime, Comparator.nullsLast(Comparator.naturalOrder())))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the players currently connected to an active game (hosts included).
+     *
+     * @param gameId the game ID
+     * @return game connections, in connection order
+     */
+    public List<LiveGameConnection> getPlayers(long gameId) {
+        lock.readLock().lock();
+        try {
+            return connectionsByGame.getOrDefault(gameId, Set.of()).stream()
+                    .sorted()
+                    .map(gameConnections::get)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the total player count for a specific genre (lobby + in-game combined).
+     * For FPS games, hosts are not counted as they don't play (they only host).
+     * For other games, hosts are counted as active players.
+     *
+     * @param genre the game genre
+     * @return the player count
+     */
+    public int getPlayerCountForGenre(GameGenre genre) {
+        return getPlayerCountsByGenre().getOrDefault(genre, 0);
+    }
+
+    /**
+     * Get the player count of every genre in a single pass over the games, with the counting rules of
+     * {@link #getPlayerCountForGenre(GameGenre)}.
+     *
+     * @return the player count by genre, genres without games are left out
+     */
+    public Map<GameGenre, Integer> getPlayerCountsByGenre() {
+        Map<GameGenre, Integer> counts = new EnumMap<>(GameGenre.class);
+        lock.readLock().lock();
+        try {
+            sessionsByGame.forEach((game, sessionIds) -> {
+                int count = 0;
+                for (Long sessionId : sessionIds) {
+                    if (!sessions.get(sessionId).isHost() && !connectionsBySession.containsKey(sessionId)) {
+                        count++;
+                    }
+                }
+                counts.merge(game.getGameGenre(), count, Integer::sum);
+            });
+            gamesByGame.forEach((game, gameIds) -> {
+                boolean excludeHosts = (game.getGameGenre() == GameGenre.FPS); // Don't count hosts for FPS games (dedicated servers)
+                int count = 0;
+                for (Long gameId : gameIds) {
+                    for (Long gameConnectionId : connectionsByGame.getOrDefault(gameId, Set.of())) {
+                        if (!excludeHosts || !gameConnections.get(gameConnectionId).isSessionHost()) {
+                            count++;
+                        }
+                    }
+                }
+                counts.merge(game.getGameGenre(), count, Integer::sum);
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    /**
+     * Version of the presence of a genre, to tell whether its status needs to be rendered again.
+     *
+     * @param genre the game genre, ALL for any change
+     * @return a number that changes whenever the sessions, games or players of the genre change
+     */
+    public long getVersion(GameGenre genre) {
+        lock.readLock().lock();
+        try {
+            return versions.getOrDefault(genre, 0L);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void markChanged(Game game) {
+        if (game != null) {
+            versions.merge(game.getGameGenre(), 1L, Long::sum);
+        }
+        versions.merge(GameGenre.ALL, 1L, Long::sum);
+    }
+
+    private void putSession(LiveSession session) {
+        Game game = Game.findByVers(session.getVers());
+        if (sessions.put(session.getId(), session) == null) {
+            markChanged(game);
+        }
+        if (game != null) {
+            sessionsByGame.computeIfAbsent(game, key -> new HashSet<>()).add(session.getId());
+        }
+    }
+
+    private void putGame(LiveGame liveGame) {
+        Game game = Game.findByServerVers(liveGame.getVers());
+        if (games.put(liveGame.getId(), liveGame) == null) {
+            markChanged(game);
+        }
+        if (game != null) {
+            gamesByGame.computeIfAbsent(game, key -> new HashSet<>()).add(liveGame.getId());
+        }
+    }
+
+    private void putGameConnection(LiveGameConnection gameConnection) {
+        boolean added;
+        if (games.containsKey(gameConnection.getGameId())) {
+            added = gameConnections.put(gameConnection.getId(), gameConnection) == null;
+            connectionsByGame.computeIfAbsent(gameConnection.getGameId(), key -> new HashSet<>()).add(gameConnection.getId());
+        } else {
+            // The game ended, or started after the window was read and is picked up by the next resync
+            added = detachedConnections.put(gameConnection.getId(), gameConnection) == null;
+        }
+        connectionsBySession.computeIfAbsent(gameConnection.getPersonaConnectionId(), key -> new HashSet<>()).add(gameConnection.getId());
+        if (added) {
+            markConnectionChanged(gameConnection);
+        }
+    }
+
+    private void removeGameConnection(Long gameConnectionId) {
+        LiveGameConnection gameConnection = gameConnections.remove(gameConnectionId);
+        if (gameConnection == null) {
+            gameConnection = detachedConnections.remove(gameConnectionId);
+            if (gameConnection == null) {
+                return;
+            }
+        }
+        markConnectionChanged(gameConnection);
+        removeFromIndex(connectionsByGame, gameConnection.getGameId(), gameConnectionId);
+        removeFromIndex(connectionsBySession, gameConnection.getPersonaConnectionId(), gameConnectionId);
+    }
+
+    private void detachGameConnection(Long gameConnectionId) {
+        LiveGameConnection gameConnection = gameConnections.remove(gameConnectionId);
+        if (gameConnection == null) {
+            return;
+        }
+        markConnectionChanged(gameConnection);
+        removeFromIndex(connectionsByGame, gameConnection.getGameId(), gameConnectionId);
+        detachedConnections.put(gameConnectionId, gameConnection);
+    }
+
+    private void markConnectionChanged(LiveGameConnection gameConnection) {
+        // The player moves between the lobby of its session's game and the game it joined
+        LiveGame liveGame = games.get(gameConnection.getGameId());
+        if (liveGame != null) {
+            markChanged(Game.findByServerVers(liveGame.getVers()));
+        }
+        LiveSession session = sessions.get(gameConnection.getPersonaConnectionId());
+        if (session != null) {
+            markChanged(Game.findByVers(session.getVers()));
+        }
+    }
+
+    private void removeGame(Long gameId) {
+        LiveGame liveGame = games.remove(gameId);
+        if (liveGame == null) {
+            return;
+        }
+        // Connections the game did not close keep their player out of the lobby until they end
+        new ArrayList<>(connectionsByGame.getOrDefault(gameId, Set.of())).forEach(this::detachGameConnection);
+        Game game = Game.findByServerVers(liveGame.getVers());
+        markChanged(game);
+        if (game != null) {
+            removeFromIndex(gamesByGame, game, gameId);
+        }
+    }
+
+    private void removeSession(Long sessionId) {
+        LiveSession session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        new ArrayList<>(connectionsBySession.getOrDefault(sessionId, Set.of())).forEach(this::removeGameConnection);
+        Game game = Game.findByVers(session.getVers());
+        markChanged(game);
+        if (game != null) {
+            removeFromIndex(sessionsByGame, game, sessionId);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<Long>> index, K key, Long id) {
+        Set<Long> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ea.services.core;
+
+import com.ea.enums.GameGenre;
+import com.ea.enums.ReplayScope;
+import com.ea.listeners.ReplayCommandListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Runs a replay at startup with the replay profile, for backfills too long or too large for the slash command.
+ * The replay is written to the configured channels, or to disk when no channel is configured.
+ */
+@Slf4j
+@Profile("replay")
+@Component
+@RequiredArgsConstructor
+public class ReplayRunner implements ApplicationRunner {
+
+    private final ReplayService replayService;
+    @Value("${services.replay.from}")
+    private String from;
+    @Value("${services.replay.to}")
+    private String to;
+    @Value("${services.replay.scope}")
+    private String scope;
+    @Value("${services.replay.genre}")
+    private String genre;
+    @Value("${services.replay.channel-ids}")
+    private List<String> channelIds;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(ReplayCommandListener.REPLAY_DATETIME_FORMAT);
+        LocalDateTime fromTime = LocalDateTime.parse(from, formatter);
+        LocalDateTime toTime = LocalDateTime.parse(to, formatter);
+        ReplayScope replayScope = ReplayScope.fromValue(scope);
+        GameGenre gameGenre = GameGenre.fromValue(genre);
+
+        ReplayService.Summary summary = channelIds.isEmpty()
+                ? replayService.replayToDisk(fromTime, toTime, replayScope, gameGenre)
+                : replayService.replayToChannels(fromTime, toTime, replayScope, gameGenre, channelIds);
+        log.info("Replay finished: {}", summary);
+    }
+}
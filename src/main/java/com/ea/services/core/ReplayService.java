@@ -0,0 +1,201 @@
+package com.ea.services.core;
+
+import com.ea.entities.core.GameEntity;
+import com.ea.entities.discord.OutboxEntity;
+import com.ea.enums.GameGenre;
+import com.ea.enums.ReplayScope;
+import com.ea.model.Event;
+import com.ea.model.Scoreboard;
+import com.ea.repositories.discord.OutboxRepository;
+import com.ea.services.discord.OutboxService;
+import com.ea.utils.EventFormatUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Replays the scoreboards and player events of a past time range, to backfill a channel or rebuild a feed on disk.
+ * The range is processed in pages of bounded duration, so a long range never loads all of its games and events at once.
+ * Replays only write to the chosen channels or directory: subscriptions and the polling checkpoint are left untouched,
+ * and events are not compacted. Scoreboards are not bound by the tick deadline but by services.replay.render-deadline,
+ * the games still unfinished at that point are counted in the summary.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ReplayService {
+
+    private static final DateTimeFormatter DIRECTORY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter RUN_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS");
+    private static final DateTimeFormatter EVENT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final PollingService pollingService;
+    private final OutboxService outboxService;
+    private final OutboxRepository outboxRepository;
+    // Scoreboards are rendered with Chrome, a single replay at a time keeps the load bounded
+    private final AtomicBoolean running = new AtomicBoolean();
+    @Value("${services.replay.page-duration}")
+    private long pageDuration;
+    @Value("${services.replay.output-path}")
+    private String outputPath;
+    @Value("${services.replay.render-deadline}")
+    private long renderDeadline;
+
+    /**
+     * @param pages       the number of pages processed
+     * @param events      the number of events replayed
+     * @param scoreboards the number of scoreboards replayed
+     * @param unfinished  the number of scoreboards not rendered before the render deadline, not replayed
+     * @param output      the directory written to, null when replaying to channels
+     */
+    public record Summary(int pages, int events, int scoreboards, int unfinished, Path output) {
+    }
+
+    @FunctionalInterface
+    private interface ReplaySink {
+        void accept(List<Event> events, List<Scoreboard> scoreboards) throws IOException;
+    }
+
+    /**
+     * Replay a time range to channels. Notifications go through the outbox, like live ones.
+     *
+     * @param from       the start of the time range
+     * @param to         the end of the time range
+     * @param scope      what to replay
+     * @param gameGenre  the genre to replay, ALL for every genre
+     * @param channelIds the channels to send to
+     * @return the replay summary
+     * @throws IOException never for channels, declared by the shared paging loop
+     */
+    public Summary replayToChannels(LocalDateTime from, LocalDateTime to, ReplayScope scope, GameGenre gameGenre,
+                                    List<String> channelIds) throws IOException {
+        log.info("Replaying {} from {} to {} for genre {} to channels {}", scope, from, to, gameGenre, channelIds);
+        return replay(from, to, scope, gameGenre, null, (events, scoreboards) -> {
+            List<OutboxEntity> notifications = new ArrayList<>();
+            for (Scoreboard scoreboard : scoreboards) {
+                notifications.addAll(outboxService.createImages(channelIds, scoreboard.imageFiles(), null, scoreboard.gameGenre(), null));
+            }
+            // Replays carry no source time, their lag would skew the freshness metrics
+            EventFormatUtils.groupByGenre(events).forEach((genre, genreEvents) -> {
+                for (String message : EventFormatUtils.formatMessages(genreEvents)) {
+                    notifications.addAll(outboxService.createMessages(channelIds, message, genre, null));
+                }
+            });
+            outboxRepository.saveAll(notifications);
+        });
+    }
+
+    /**
+     * Replay a time range to a new directory under the replay output path: one log file of events per genre,
+     * and a copy of every scoreboard image. Each run gets its own directory, a rerun of the same range starts empty.
+     *
+     * @param from      the start of the time range
+     * @param to        the end of the time range
+     * @param scope     what to replay
+     * @param gameGenre the genre to replay, ALL for every genre
+     * @return the replay summary
+     * @throws IOException if the output could not be written
+     */
+    public Summary replayToDisk(LocalDateTime from, LocalDateTime to, ReplayScope scope, GameGenre gameGenre) throws IOException {
+        Path output = Path.of(outputPath, "replay_" + from.format(DIRECTORY_FORMAT) + "_" + to.format(DIRECTORY_FORMAT)
+                + "_" + LocalDateTime.now().format(RUN_FORMAT));
+        Files.createDirectories(output.getParent());
+        // Fails rather than appending to the event logs of another run
+        Files.createDirectory(output);
+        Path scoreboardDir = Files.createDirectory(output.resolve("scoreboards"));
+        log.info("Replaying {} from {} to {} for genre {} to {}", scope, from, to, gameGenre, output);
+        return replay(from, to, scope, gameGenre, output, (events, scoreboards) -> {
+            for (Scoreboard scoreboard : scoreboards) {
+                for (File imageFile : scoreboard.imageFiles()) {
+                    Files.copy(imageFile.toPath(), scoreboardDir.resolve(imageFile.getName()), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            for (Map.Entry<GameGenre, List<Event>> genreEvents : EventFormatUtils.groupByGenre(events).entrySet()) {
+                List<String> lines = genreEvents.getValue().stream()
+                        .map(event -> event.time().format(EVENT_TIME_FORMAT) + " " + EventFormatUtils.format(event))
+                        .toList();
+                Files.write(output.resolve("events_" + genreEvents.getKey().getValue().toLowerCase() + ".log"), lines,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        });
+    }
+
+    private Summary replay(LocalDateTime from, LocalDateTime to, ReplayScope scope, GameGenre gameGenre, Path output,
+                           ReplaySink sink) throws IOException {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("The start of the range must be before its end");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A replay is already running");
+        }
+        try {
+            List<GameGenre> gameGenres = gameGenre == GameGenre.ALL ? List.of(GameGenre.values()) : List.of(gameGenre);
+            int pages = 0;
+            int eventCount = 0;
+            int scoreboardCount = 0;
+            int unfinishedCount = 0;
+            LocalDateTime pageStart = from;
+            while (pageStart.isBefore(to)) {
+                LocalDateTime pageEnd = pageStart.plus(Duration.ofMillis(pageDuration));
+                if (pageEnd.isAfter(to)) {
+                    pageEnd = to;
+                }
+                boolean lastPage = pageEnd.equals(to);
+
+                // Range bounds are inclusive, games and events on a page boundary belong to the next page
+                LocalDateTime end = pageEnd;
+                List<Scoreboard> scoreboards = List.of();
+                if (scope.includesScoreboards()) {
+                    List<GameEntity> finishedGames = pollingService.findFinishedGames(pageStart, pageEnd, gameGenres).stream()
+                            .filter(game -> lastPage || game.getEndTime().isBefore(end))
+                            .toList();
+                    ScoreboardExecutor.Results<Scoreboard> rendered = pollingService.renderScoreboards(finishedGames,
+                            Duration.ofMillis(renderDeadline));
+                    scoreboards = rendered.completed().stream()
+                            .filter(scoreboard -> !scoreboard.imageFiles().isEmpty())
+                            .toList();
+                    if (!rendered.unfinished().isEmpty()) {
+                        log.warn("Replay page {} to {}: {} scoreboards not rendered before the deadline", pageStart, pageEnd,
+                                rendered.unfinished().size());
+                        unfinishedCount += rendered.unfinished().size();
+                    }
+                }
+                List<Event> events = List.of();
+                if (scope.includesEvents()) {
+                    events = pollingService.findPlayerEvents(pageStart, pageEnd).stream()
+                            .filter(event -> gameGenres.contains(event.gameGenre()))
+                            .filter(event -> lastPage || event.time().isBefore(end))
+                            .sorted()
+                            .toList();
+                }
+                sink.accept(events, scoreboards);
+
+                pages++;
+                eventCount += events.size();
+                scoreboardCount += scoreboards.size();
+                log.debug("Replayed page {} to {}: {} events, {} scoreboards", pageStart, pageEnd, events.size(), scoreboards.size());
+                pageStart = pageEnd;
+            }
+            log.info("Replay done: {} pages, {} events, {} scoreboards, {} unfinished scoreboards", pages, eventCount,
+                    scoreboardCount, unfinishedCount);
+            return new Summary(pages, eventCount, scoreboardCount, unfinishedCount, output);
+        } finally {
+            running.set(false);
+        }
+    }
+}
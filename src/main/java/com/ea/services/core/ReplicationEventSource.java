@@ -0,0 +1,402 @@
+package com.ea.services.core;
+
+import com.ea.entities.discord.ParamEntity;
+import com.ea.enums.LeasedJob;
+import com.ea.enums.Params;
+import com.ea.model.CoreChanges;
+import com.ea.repositories.discord.ParamRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGProperty;
+import org.postgresql.replication.LogSequenceNumber;
+import org.postgresql.replication.PGReplicationStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Change data capture source reading PERSONA_CONNECTION, GAME_CONNECTION and GAME changes from a PostgreSQL logical
+ * replication slot (pgoutput), as an optional replacement for the range queries of the {@link PollingService}.
+ * <p>
+ * Committed transactions are buffered in batches until the polling ticks take them, one batch per tick. A batch holds
+ * whole transactions, up to services.cdc.batch-size row IDs unless a single transaction is larger. The reader stops
+ * streaming while services.cdc.max-pending row IDs are buffered, the server keeps the WAL meanwhile. The tick commits
+ * the LSN checkpoint together with its notifications, then acknowledges it so the server can release the WAL. After a
+ * restart, or when a tick fails, streaming resumes from the last acknowledged LSN: changes are delivered at least once,
+ * without gaps, and transactions at or before the checkpoint are skipped.
+ * <p>
+ * Row changes are mapped to events as follows: a connection insert is a login or a join, an update setting the end
+ * time is a logout or a leave, and a game update setting the end time is a finished game. An update sets the end time
+ * when the old row had none, which needs the tables to stream their old rows (REPLICA IDENTITY FULL). Without them,
+ * rows are reported as ended once, as long as they are remembered.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReplicationEventSource implements PgOutputDecoder.Handler {
+
+    private static final String PERSONA_CONNECTION = "core.persona_connection";
+    private static final String GAME_CONNECTION = "core.game_connection";
+    private static final String GAME = "core.game";
+    private static final String ID = "id";
+    private static final String END_TIME = "end_time";
+    // Rows already reported as ended, when the old rows are not streamed
+    private static final int ENDED_IDS_CAPACITY = 10_000;
+
+    private final ParamRepository paramRepository;
+    private final LeaseService leaseService;
+    @Value("${services.cdc.enabled}")
+    private boolean enabled;
+    @Value("${services.cdc.slot-name}")
+    private String slotName;
+    @Value("${services.cdc.publication-name}")
+    private String publicationName;
+    @Value("${services.sharding.enabled}")
+    private boolean shardingEnabled;
+    @Value("${services.cdc.retry-delay}")
+    private long retryDelay;
+    @Value("${services.cdc.batch-size}")
+    private int batchSize;
+    @Value("${services.cdc.max-pending}")
+    private int maxPending;
+    @Value("${spring.datasource.url}")
+    private String url;
+    @Value("${spring.datasource.username}")
+    private String username;
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private final PgOutputDecoder decoder = new PgOutputDecoder();
+    private final Set<String> endedIds = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > ENDED_IDS_CAPACITY;
+        }
+    });
+    // Changes of the transaction being streamed, only touched by the reader thread
+    private CoreChanges transaction = new CoreChanges();
+    // Committed changes waiting for the next ticks, in batches of whole transactions
+    private final Deque<CoreChanges> pending = new ArrayDeque<>();
+    // Number of row IDs in the pending batches
+    private int pendingSize;
+    // Transactions ending at or before this LSN are already processed, they are skipped when streamed again
+    private long skipBefore;
+    private volatile long acknowledgedLsn;
+    private volatile boolean rewind;
+    private volatile boolean running;
+    private boolean oldRowsWarned;
+    private Thread reader;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.debug("Change data capture is disabled");
+            return;
+        }
+        if (shardingEnabled) {
+            // A slot has a single consumer and a single checkpoint, it cannot follow genres spread over several nodes
+            log.warn("Change data capture is not supported with genre sharding, polling time ranges instead");
+            enabled = false;
+            return;
+        }
+        running = true;
+        reader = Thread.ofPlatform().daemon().name("cdc-reader").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (reader != null) {
+            reader.interrupt();
+        }
+    }
+
+    /**
+     * Take the oldest batch of committed changes.
+     * After a rewind, nothing is returned until the reader streams again from the last acknowledged LSN.
+     *
+     * @return the changes, possibly empty
+     */
+    public synchronized CoreChanges poll() {
+        if (rewind) {
+            // Changes buffered by the reader before it stopped would be followed by the ones it streams again
+            clearPending();
+            return new CoreChanges();
+        }
+        CoreChanges changes = pending.pollFirst();
+        if (changes == null) {
+            return new CoreChanges();
+        }
+        pendingSize -= changes.size();
+        return changes;
+    }
+
+    /**
+     * @return true if committed changes are left for the next ticks
+     */
+    public synchronized boolean hasPending() {
+        return !rewind && !pending.isEmpty();
+    }
+
+    /**
+     * Build the checkpoint to commit together with the notifications of the changes.
+     *
+     * @param changes the changes processed by the tick
+     * @return the checkpoint parameter
+     */
+    public ParamEntity checkpoint(CoreChanges changes) {
+        ParamEntity checkpoint = new ParamEntity();
+        checkpoint.setParamKey(Params.CDC_LSN.name());
+        checkpoint.setParamValue(LogSequenceNumber.valueOf(changes.getLsn()).asString());
+        return checkpoint;
+    }
+
+    /**
+     * Confirm to the server that the changes are processed and committed, so it can release the WAL.
+     *
+     * @param changes the changes processed by the tick
+     */
+    public void acknowledge(CoreChanges changes) {
+        if (changes.getLsn() > acknowledgedLsn) {
+            acknowledgedLsn = changes.getLsn();
+        }
+    }
+
+    /**
+     * Report games again with the next changes, when the tick that took them could not complete their scoreboards.
+     * Their end is already acknowledged, so they are only kept in memory until the next tick.
+     *
+     * @param gameIds the games to process again
+     */
+    public synchronized void retryEndedGames(Collection<Long> gameIds) {
+        if (gameIds.isEmpty()) {
+            return;
+        }
+        if (pending.isEmpty()) {
+            pending.addFirst(new CoreChanges());
+        }
+        CoreChanges next = pending.peekFirst();
+        pendingSize -= next.size();
+        next.getEndedGameIds().addAll(gameIds);
+        pendingSize += next.size();
+    }
+
+    /**
+     * Drop the changes not yet acknowledged and stream them again from the last acknowledged LSN.
+     */
+    public synchronized void rewind() {
+        rewind = true;
+        clearPending();
+    }
+
+    private void clearPending() {
+        pending.clear();
+        pendingSize = 0;
+    }
+
+    private synchronized boolean isBackpressured() {
+        return pendingSize >= maxPending;
+    }
+
+    private void run() {
+        while (running) {
+            if (!leaseService.isLeader(LeasedJob.EVENTS)) {
+                // A slot has a single consumer: only the node running the events job streams
+                try {
+                    TimeUnit.SECONDS.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+            try (Connection connection = openReplicationConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                createSlotIfMissing(connection, pgConnection);
+                // Another node may have moved the checkpoint while it was running the events job
+                long checkpoint = paramRepository.findById(Params.CDC_LSN.name())
+                        .map(param -> LogSequenceNumber.valueOf(param.getParamValue()).asLong())
+                        .orElse(0L);
+                resetBuffers(checkpoint);
+                PGReplicationStream stream = pgConnection.getReplicationAPI()
+                        .replicationStream()
+                        .logical()
+                        .withSlotName(slotName)
+                        .withSlotOption("proto_version", 1)
+                        .withSlotOption("publication_names", publicationName)
+                        .withStartPosition(LogSequenceNumber.valueOf(skipBefore))
+                        .withStatusInterval(10, TimeUnit.SECONDS)
+                        .start();
+                log.info("Streaming changes from replication slot {} at {}", slotName, LogSequenceNumber.valueOf(skipBefore));
+
+                long confirmedLsn = 0;
+                while (running && !rewind && leaseService.isLeader(LeasedJob.EVENTS)) {
+                    long lsn = acknowledgedLsn;
+                    if (lsn > confirmedLsn) {
+                        stream.setAppliedLSN(LogSequenceNumber.valueOf(lsn));
+                        stream.setFlushedLSN(LogSequenceNumber.valueOf(lsn));
+                        confirmedLsn = lsn;
+                    }
+                    if (isBackpressured()) {
+                        // Let the ticks drain the buffer, the status update keeps the connection alive meanwhile
+                        stream.forceUpdateStatus();
+                        TimeUnit.SECONDS.sleep(1);
+                        continue;
+                    }
+                    ByteBuffer message = stream.readPending();
+                    if (message == null) {
+                        TimeUnit.MILLISECONDS.sleep(100);
+                        continue;
+                    }
+                    decoder.decode(message, this);
+                }
+                if (rewind) {
+                    log.warn("Rewinding replication slot {} to {}", slotName, LogSequenceNumber.valueOf(acknowledgedLsn));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error streaming changes from replication slot {}, retrying in {} ms", slotName, retryDelay, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(retryDelay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Connection openReplicationConnection() throws SQLException {
+        Properties properties = new Properties();
+        PGProperty.USER.set(properties, username);
+        PGProperty.PASSWORD.set(properties, password);
+        PGProperty.ASSUME_MIN_SERVER_VERSION.set(properties, "10");
+        PGProperty.REPLICATION.set(properties, "database");
+        PGProperty.PREFER_QUERY_MODE.set(properties, "simple");
+        return DriverManager.getConnection(url, properties);
+    }
+
+    private void createSlotIfMissing(Connection connection, PGConnection pgConnection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM pg_replication_slots WHERE slot_name = ?")) {
+            statement.setString(1, slotName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return;
+                }
+            }
+        }
+        // The publication is created by the database owner, see services.cdc.publication-name
+        pgConnection.getReplicationAPI()
+                .createReplicationSlot()
+                .logical()
+                .withSlotName(slotName)
+                .withOutputPlugin("pgoutput")
+                .make();
+        log.info("Created replication slot {}", slotName);
+    }
+
+    private synchronized void resetBuffers(long checkpoint) {
+        // Everything after the last acknowledged LSN is streamed again
+        transaction = new CoreChanges();
+        clearPending();
+        endedIds.clear();
+        acknowledgedLsn = Math.max(acknowledgedLsn, checkpoint);
+        skipBefore = acknowledgedLsn;
+        rewind = false;
+    }
+
+    @Override
+    public void onChange(PgOutputDecoder.RowChange change) {
+        String id = change.columns().get(ID);
+        if (id == null) {
+            return;
+        }
+        switch (change.table()) {
+            case PERSONA_CONNECTION -> {
+                if (change.type() == PgOutputDecoder.ChangeType.INSERT) {
+                    transaction.getLoginIds().add(Long.parseLong(id));
+                } else if (isEnding(change, PERSONA_CONNECTION + id)) {
+                    transaction.getLogoutIds().add(Long.parseLong(id));
+                }
+            }
+            case GAME_CONNECTION -> {
+                if (change.type() == PgOutputDecoder.ChangeType.INSERT) {
+                    transaction.getJoinIds().add(Long.parseLong(id));
+                } else if (isEnding(change, GAME_CONNECTION + id)) {
+                    transaction.getLeaveIds().add(Long.parseLong(id));
+                }
+            }
+            case GAME -> {
+                if (isEnding(change, GAME + id)) {
+                    transaction.getEndedGameIds().add(Long.parseLong(id));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Whether an update is the one setting the end time of a row, rather than a later update of an ended row.
+     *
+     * @param change the row change
+     * @param key    the table and ID of the row
+     * @return true if the row ends with this change
+     */
+    private boolean isEnding(PgOutputDecoder.RowChange change, String key) {
+        if (change.type() != PgOutputDecoder.ChangeType.UPDATE || change.columns().get(END_TIME) == null) {
+            return false;
+        }
+        Map<String, String> oldColumns = change.oldColumns();
+        if (oldColumns != null && oldColumns.containsKey(END_TIME)) {
+            return oldColumns.get(END_TIME) == null;
+        }
+        if (!oldRowsWarned) {
+            log.warn("Table {} streams no old rows, set its REPLICA IDENTITY to FULL so that ended rows are reported once", change.table());
+            oldRowsWarned = true;
+        }
+        return endedIds.add(key);
+    }
+
+    @Override
+    public void onCommit(long endLsn) {
+        CoreChanges committed = transaction;
+        transaction = new CoreChanges();
+        if (endLsn <= skipBefore) {
+            return;
+        }
+        // Transactions without events still move the checkpoint, so the server can release their WAL
+        committed.setLsn(endLsn);
+        synchronized (this) {
+            CoreChanges last = pending.peekLast();
+            if (last != null && last.size() + committed.size() <= batchSize) {
+                pendingSize -= last.size();
+                last.addAll(committed);
+                pendingSize += last.size();
+            } else {
+                pending.addLast(committed);
+                pendingSize += committed.size();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.ea.services.core;
+
+import com.ea.entities.core.GameEntity;
+import com.ea.entities.discord.ScoreboardMissEntity;
+import com.ea.repositories.discord.ScoreboardMissRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the ticks whose deadline the scoreboard of a game missed.
+ * An unfinished game holds the checkpoint back so that it is rendered again; a game missing the deadline
+ * services.scoreboard.max-attempts times is given up, so that a scoreboard that never completes cannot pin the
+ * checkpoint. The counts are kept in the database to survive a restart or a failover.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScoreboardAttempts {
+
+    // Misses of a game are forgotten after this time, its end is long behind every checkpoint by then
+    private static final Duration RETENTION = Duration.ofDays(1);
+
+    private final ScoreboardMissRepository scoreboardMissRepository;
+    @Value("${services.scoreboard.max-attempts}")
+    private int maxAttempts;
+
+    /**
+     * Leave out the games already given up.
+     *
+     * @param games the finished games
+     * @return the games to render, in the same order
+     */
+    public List<GameEntity> withoutGivenUp(List<GameEntity> games) {
+        if (games.isEmpty()) {
+            return games;
+        }
+        Set<Long> givenUp = scoreboardMissRepository.findByGameIdInAndMissesGreaterThanEqual(
+                        games.stream().map(GameEntity::getId).toList(), maxAttempts).stream()
+                .map(ScoreboardMissEntity::getGameId)
+                .collect(Collectors.toSet());
+        if (givenUp.isEmpty()) {
+            return games;
+        }
+        return games.stream().filter(game -> !givenUp.contains(game.getId())).toList();
+    }
+
+    /**
+     * Count a miss for each unfinished game.
+     *
+     * @param unfinished the games cancelled at the tick deadline
+     * @return the games to render again on a later tick, the others are given up
+     */
+    public List<GameEntity> recordMisses(List<GameEntity> unfinished) {
+        if (unfinished.isEmpty()) {
+            return unfinished;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        scoreboardMissRepository.deleteByLastMissAtBefore(now.minus(RETENTION));
+        Map<Long, ScoreboardMissEntity> misses = scoreboardMissRepository.findAllById(
+                        unfinished.stream().map(GameEntity::getId).toList()).stream()
+                .collect(Collectors.toMap(ScoreboardMissEntity::getGameId, Function.identity()));
+        List<ScoreboardMissEntity> updated = new ArrayList<>();
+        List<GameEntity> retried = new ArrayList<>();
+        for (GameEntity game : unfinished) {
+            ScoreboardMissEntity miss = misses.computeIfAbsent(game.getId(), gameId -> {
+                ScoreboardMissEntity entity = new ScoreboardMissEntity();
+                entity.setGameId(gameId);
+                return entity;
+            });
+            miss.setMisses(miss.getMisses() + 1);
+            miss.setLastMissAt(now);
+            updated.add(miss);
+            if (miss.getMisses() < maxAttempts) {
+                retried.add(game);
+            } else {
+                log.error("Giving up the scoreboard of game #{} after {} missed tick deadlines", game.getId(), miss.getMisses());
+            }
+        }
+        scoreboardMissRepository.saveAll(updated);
+        return retried;
+    }
+}
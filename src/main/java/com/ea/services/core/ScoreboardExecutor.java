@@ -0,0 +1,143 @@
+package com.ea.services.core;
+
+import com.ea.entities.core.GameEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Runs the scoreboard of each finished game on its own virtual thread.
+ * A failing or slow game does not delay the others: failures are logged per game, and games still running when the
+ * tick deadline is reached are cancelled so the polling thread can move on. Cancelled games are returned to the caller,
+ * which processes them again on a later tick.
+ * The number of games processed at the same time is bounded across ticks, as each render starts its own Chrome
+ * instance: a render does not stop on interrupt, so a cancelled one keeps its permit until it really ends, and its game
+ * is not submitted again while it runs.
+ */
+@Slf4j
+@Component
+public class ScoreboardExecutor {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("scoreboard-", 0).factory());
+    // Games whose render has not ended yet, including the ones cancelled by a previous tick
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private Semaphore permits;
+    @Value("${services.scoreboard.max-concurrency}")
+    private int maxConcurrency;
+    @Value("${services.scoreboard.tick-deadline}")
+    private long tickDeadline;
+
+    /**
+     * Outcome of the games of a tick.
+     *
+     * @param completed  the results of the games that completed successfully, in game order
+     * @param unfinished the games cancelled at the tick deadline or still running from a previous tick, in game order.
+     *                   Failed games are not included
+     */
+    public record Results<T>(List<T> completed, List<GameEntity> unfinished) {
+    }
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrency);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run the task for every game and wait until all of them are done or the tick deadline is reached.
+     *
+     * @param games the finished games
+     * @param task  the scoreboard processing (DB reads, rendering) of one game
+     * @return the results of the completed games and the games left unfinished
+     */
+    public <T> Results<T> forEachGame(List<GameEntity> games, Function<GameEntity, T> task) {
+        return forEachGame(games, task, Duration.ofMillis(tickDeadline));
+    }
+
+    /**
+     * Run the task for every game and wait until all of them are done or the deadline is reached.
+     *
+     * @param games    the finished games
+     * @param task     the scoreboard processing (DB reads, rendering) of one game
+     * @param deadline the longest time to wait for the games
+     * @return the results of the completed games and the games left unfinished
+     */
+    public <T> Results<T> forEachGame(List<GameEntity> games, Function<GameEntity, T> task, Duration deadline) {
+        List<T> results = new ArrayList<>(games.size());
+        List<GameEntity> unfinished = new ArrayList<>();
+        if (games.isEmpty()) {
+            return new Results<>(results, unfinished);
+        }
+
+        List<Future<T>> futures = new ArrayList<>(games.size());
+        for (GameEntity game : games) {
+            if (!running.add(game.getId())) {
+                // Rendering it twice would take a second Chrome instance, the render of the previous tick may still end
+                log.warn("Scoreboard for game #{} is still running from a previous tick", game.getId());
+                futures.add(null);
+                continue;
+            }
+            futures.add(executor.submit(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        return task.apply(game);
+                    } finally {
+                        permits.release();
+                    }
+                } finally {
+                    running.remove(game.getId());
+                }
+            }));
+        }
+
+        Instant waitUntil = Instant.now().plus(deadline);
+        for (int i = 0; i < futures.size(); i++) {
+            Future<T> future = futures.get(i);
+            long gameId = games.get(i).getId();
+            if (future == null) {
+                unfinished.add(games.get(i));
+                continue;
+            }
+            try {
+                long remaining = Math.max(0, Duration.between(Instant.now(), waitUntil).toMillis());
+                results.add(future.get(remaining, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                log.warn("Scoreboard for game #{} did not complete before the deadline, cancelling", gameId);
+                // Do not wait for it: a render stuck in I/O must not block the polling thread
+                future.cancel(true);
+                unfinished.add(games.get(i));
+            } catch (ExecutionException e) {
+                log.error("Error processing scoreboard for game #{}", gameId, e.getCause());
+            } catch (CancellationException e) {
+                log.warn("Scoreboard for game #{} was cancelled", gameId);
+                unfinished.add(games.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while waiting for scoreboards to complete");
+                for (int j = i; j < futures.size(); j++) {
+                    if (futures.get(j) != null) {
+                        futures.get(j).cancel(true);
+                    }
+                }
+                unfinished.addAll(games.subList(i, games.size()));
+                break;
+            }
+        }
+        return new Results<>(results, unfinished);
+    }
+}
@@ -32,14 +32,21 @@ public class ChannelSubscriptionService {
         }
     }
 
+    /**
+     * Subscribe a channel, replacing the subscription of the guild for the same type and genre.
+     *
+     * @param webhookUrl the webhook to deliver through, null to deliver as the bot
+     */
     @Transactional
-    public ChannelSubscriptionEntity subscribe(String guildId, String channelId, SubscriptionType subscriptionType, GameGenre gameGenre) {
+    public ChannelSubscriptionEntity subscribe(String guildId, String channelId, SubscriptionType subscriptionType, GameGenre gameGenre,
+                                               String webhookUrl) {
         Optional<ChannelSubscriptionEntity> existing = repository.findByGuildIdAndSubscriptionTypeAndGameGenre(guildId, subscriptionType, gameGenre);
         ChannelSubscriptionEntity entity = existing.orElseGet(ChannelSubscriptionEntity::new);
         entity.setGuildId(guildId);
         entity.setChannelId(channelId);
         entity.setSubscriptionType(subscriptionType);
         entity.setGameGenre(gameGenre);
+        entity.setWebhookUrl(webhookUrl);
         entity.setUpdatedAt(LocalDateTime.now());
         if (entity.getCreatedAt() == null) {
             entity.setCreatedAt(LocalDateTime.now());
@@ -76,6 +83,50 @@ public class ChannelSubscriptionService {
         return subscriptionCache.getOrDefault(cacheKey, List.of());
     }
 
+    /**
+     * @param channelId        the channel
+     * @param subscriptionType the subscription type
+     * @return the webhook the channel's subscriptions of this type are delivered through, if any
+     */
+    public Optional<String> getWebhookUrl(String channelId, SubscriptionType subscriptionType) {
+        return findWebhookUrl(channelId, List.of(subscriptionType));
+    }
+
+    /**
+     * @param channelId the channel
+     * @return a webhook already used by a subscription of the channel, to be shared with its other subscriptions
+     */
+    public Optional<String> findWebhookUrl(String channelId) {
+        return findWebhookUrl(channelId, List.of(SubscriptionType.values()));
+    }
+
+    /**
+     * Stop delivering through a webhook that was deleted, the subscriptions fall back to bot messages.
+     *
+     * @param webhookUrl the webhook
+     */
+    @Transactional
+    public void removeWebhook(String webhookUrl) {
+        for (ChannelSubscriptionEntity subscription : repository.findAllByWebhookUrl(webhookUrl)) {
+            subscription.setWebhookUrl(null);
+            subscription.setUpdatedAt(LocalDateTime.now());
+            repository.save(subscription);
+        }
+        // Cached entities are detached copies
+        subscriptionCache.values().forEach(list -> list.stream()
+                .filter(sub -> webhookUrl.equals(sub.getWebhookUrl()))
+                .forEach(sub -> sub.setWebhookUrl(null)));
+    }
+
+    private Optional<String> findWebhookUrl(String channelId, List<SubscriptionType> subscriptionTypes) {
+        return subscriptionCache.entrySet().stream()
+                .filter(entry -> subscriptionTypes.stream().anyMatch(type -> entry.getKey().startsWith(type.name() + "_")))
+                .flatMap(entry -> entry.getValue().stream())
+                .filter(sub -> sub.getChannelId().equals(channelId) && sub.getWebhookUrl() != null)
+                .map(ChannelSubscriptionEntity::getWebhookUrl)
+                .findFirst();
+    }
+
     private String getCacheKey(SubscriptionType type, GameGenre genre) {
         return type.name() + "_" + genre.name();
     }
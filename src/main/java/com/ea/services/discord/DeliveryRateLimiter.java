@@ -0,0 +1,101 @@
+package com.ea.services.discord;
+
+import com.ea.enums.DeliveryPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets in front of the Discord API, one global and one per channel, mirroring the Discord rate limits.
+ * Requests over the limits are held back by the caller instead of being queued by JDA, where bursts end up delayed by
+ * 429 responses. Lower priorities cannot take the share of the global bucket reserved to the higher ones, so that
+ * scoreboards keep going through while logs and status edits pile up.
+ * <p>
+ * Buckets are local to this node: when several nodes share the bot token, lower the rates accordingly.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeliveryRateLimiter {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Bucket> channelBuckets = new HashMap<>();
+    private Bucket globalBucket;
+    // Nanosecond clock, replaced in tests
+    private LongSupplier clock = System::nanoTime;
+    @Value("${services.delivery.global-capacity}")
+    private int globalCapacity;
+    @Value("${services.delivery.global-period}")
+    private long globalPeriod;
+    @Value("${services.delivery.channel-capacity}")
+    private int channelCapacity;
+    @Value("${services.delivery.channel-period}")
+    private long channelPeriod;
+
+    /**
+     * Take a token from the global bucket and from the bucket of the channel, or none if either is short.
+     *
+     * @param channelId the channel the request targets
+     * @param priority  the traffic class of the request
+     * @return true if the request can be sent now
+     */
+    public synchronized boolean tryAcquire(String channelId, DeliveryPriority priority) {
+        long now = clock.getAsLong();
+        if (globalBucket == null) {
+            globalBucket = new Bucket(globalCapacity, globalPeriod, now);
+        }
+        Bucket channelBucket = channelBuckets.computeIfAbsent(channelId, id -> new Bucket(channelCapacity, channelPeriod, now));
+        globalBucket.refill(now);
+        channelBucket.refill(now);
+        if (globalBucket.tokens < 1 + priority.getReserve() * globalCapacity || channelBucket.tokens < 1) {
+            meterRegistry.counter("delivery.throttled", "priority", priority.name().toLowerCase()).increment();
+            log.debug("Holding back {} request for channel {}", priority, channelId);
+            return false;
+        }
+        globalBucket.tokens--;
+        channelBucket.tokens--;
+        return true;
+    }
+
+    /**
+     * Give back the tokens taken by {@link #tryAcquire} for a request that was finally not sent.
+     *
+     * @param channelId the channel the request targeted
+     */
+    public synchronized void giveBack(String channelId) {
+        Bucket channelBucket = channelBuckets.get(channelId);
+        if (globalBucket == null || channelBucket == null) {
+            return;
+        }
+        globalBucket.tokens = Math.min(globalBucket.capacity, globalBucket.tokens + 1);
+        channelBucket.tokens = Math.min(channelBucket.capacity, channelBucket.tokens + 1);
+    }
+
+    /**
+     * Bucket holding up to capacity tokens, refilled at capacity tokens per period.
+     */
+    private static class Bucket {
+        private final int capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(int capacity, long periodMillis, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = capacity / (periodMillis * 1_000_000.0);
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -1,36 +1,52 @@
 package com.ea.services.discord;
 
 import com.ea.enums.GameGenre;
+import com.ea.enums.ReplayScope;
 import com.ea.enums.SubscriptionType;
+import com.ea.listeners.ChannelSubscriptionListener;
+import com.ea.listeners.DeadLetterCommandListener;
+import com.ea.listeners.ReplayCommandListener;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.entities.IncomingWebhookClient;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.Webhook;
+import net.dv8tion.jda.api.entities.WebhookClient;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.DefaultMemberPermissions;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.utils.FileUpload;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DiscordBotService {
 
+    // Discord allows up to 10 files per message
+    private static final int MAX_FILES_PER_MESSAGE = 10;
+
     private final JDA jda;
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     @Value("${services.bot-activity-enabled}")
     private boolean botActivityEnabled;
 
@@ -46,9 +62,15 @@ public class DiscordBotService {
                 jda.updateCommands()
                         .addCommands(
                                 Commands.slash("subscribe", "Subscribe this channel to updates for a specific game genre")
-                                        .addOptions(getSubscriptionTypeOptions(), getGameGenreOptions()),
+                                        .addOptions(getSubscriptionTypeOptions(), getGameGenreOptions(), getDeliveryOptions()),
                                 Commands.slash("unsubscribe", "Unsubscribe this server from updates for a specific game genre")
-                                        .addOptions(getUnsubscribeTypeOptions(), getGameGenreOptions())
+                                        .addOptions(getUnsubscribeTypeOptions(), getGameGenreOptions()),
+                                Commands.slash("replay", "Replay past scoreboards and logs (bot administrators only)")
+                                        .addOptions(getReplayOptions())
+                                        .setDefaultPermissions(DefaultMemberPermissions.DISABLED),
+                                Commands.slash("deadletters", "List or requeue the notifications given up after the last attempt (bot administrators only)")
+                                        .addOptions(getDeadLetterOptions())
+                                        .setDefaultPermissions(DefaultMemberPermissions.DISABLED)
                         )
                         .queue();
             }
@@ -64,6 +86,14 @@ public class DiscordBotService {
                 );
     }
 
+    private OptionData getDeliveryOptions() {
+        return new OptionData(OptionType.STRING, "delivery", "How logs and scoreboards are posted, defaults to bot messages", false)
+                .addChoices(
+                        new Command.Choice("Bot messages", ChannelSubscriptionListener.DELIVERY_BOT),
+                        new Command.Choice("Channel webhook (needs the Manage Webhooks permission)", ChannelSubscriptionListener.DELIVERY_WEBHOOK)
+                );
+    }
+
     private OptionData getUnsubscribeTypeOptions() {
         return new OptionData(OptionType.STRING, "type", "Type of updates to unsubscribe from", true)
                 .addChoices(
@@ -88,48 +118,160 @@ public class DiscordBotService {
                 );
     }
 
-    public void sendMessage(List<String> channelIds, String message) {
-        if (!botActivityEnabled) {
-            log.debug("Bot activity is disabled, skipping message: {}", message);
-            return;
+    private List<OptionData> getReplayOptions() {
+        return List.of(
+                new OptionData(OptionType.STRING, "from", "Start of the range (" + ReplayCommandListener.REPLAY_DATETIME_FORMAT + ")", true),
+                new OptionData(OptionType.STRING, "to", "End of the range (" + ReplayCommandListener.REPLAY_DATETIME_FORMAT + ")", true),
+                new OptionData(OptionType.STRING, "scope", "What to replay, defaults to everything", false)
+                        .addChoices(
+                                new Command.Choice("Scoreboards and logs", ReplayScope.ALL.getValue()),
+                                new Command.Choice("Game logs (connections)", ReplayScope.EVENTS.getValue()),
+                                new Command.Choice("Game scoreboards (end of round)", ReplayScope.SCOREBOARDS.getValue())
+                        ),
+                getGameGenreOptions().setRequired(false).setDescription("Game genre to replay, defaults to all genres"),
+                new OptionData(OptionType.STRING, "output", "Where to write the replay, defaults to this channel", false)
+                        .addChoices(
+                                new Command.Choice("This channel", ReplayCommandListener.OUTPUT_CHANNEL),
+                                new Command.Choice("Files on the bot server", ReplayCommandListener.OUTPUT_DISK)
+                        )
+        );
+    }
+
+    private List<OptionData> getDeadLetterOptions() {
+        return List.of(
+                new OptionData(OptionType.STRING, "action", "What to do with the dead letters", true)
+                        .addChoices(
+                                new Command.Choice("List the most recent", DeadLetterCommandListener.ACTION_LIST),
+                                new Command.Choice("Requeue for delivery", DeadLetterCommandListener.ACTION_REQUEUE)
+                        ),
+                new OptionData(OptionType.INTEGER, "id", "Dead letter to requeue, defaults to all of them", false)
+        );
+    }
+
+    /**
+     * Send a message to a channel.
+     *
+     * @param channelId  the channel ID
+     * @param webhookUrl the webhook of the channel to send through, null to send as the bot
+     * @param message    the message content
+     * @return a future completed once Discord acknowledged the message
+     */
+    public CompletableFuture<?> deliverMessage(String channelId, String webhookUrl, String message) {
+        Function<MessageCreateData, RestAction<?>> sender;
+        try {
+            sender = getSender(channelId, webhookUrl);
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
         }
-        for (String channelId : channelIds) {
-            TextChannel channel = jda.getTextChannelById(channelId);
-            if (channel != null && message != null && !message.isEmpty()) {
-                Runnable sendTask = () -> channel.sendMessage(message).queue();
-                scheduler.schedule(sendTask, 1, TimeUnit.SECONDS);
+        return sender.apply(MessageCreateData.fromContent(message)).submit();
+    }
+
+    /**
+     * Send images to a channel, with an optional message attached to the first batch.
+     *
+     * @param channelId  the channel ID
+     * @param webhookUrl the webhook of the channel to send through, null to send as the bot
+     * @param imageFiles the images to upload
+     * @param message    the message content, may be null
+     * @return a future completed once Discord acknowledged every batch
+     */
+    public CompletableFuture<?> deliverImages(String channelId, String webhookUrl, List<File> imageFiles, String message) {
+        Function<MessageCreateData, RestAction<?>> sender;
+        try {
+            sender = getSender(channelId, webhookUrl);
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < imageFiles.size(); i += MAX_FILES_PER_MESSAGE) {
+            List<File> batch = imageFiles.subList(i, Math.min(i + MAX_FILES_PER_MESSAGE, imageFiles.size()));
+            MessageCreateBuilder builder = new MessageCreateBuilder().setFiles(batch.stream().map(FileUpload::fromData).toList());
+            if (message != null && !message.isEmpty() && i == 0) {
+                builder.setContent(message);
             }
+            futures.add(sender.apply(builder.build()).submit());
         }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
     }
 
-    public void sendImages(List<String> channelIds, List<File> imageFiles, String message) {
-        if (!botActivityEnabled) {
-            log.debug("Bot activity is disabled, skipping images: {}", imageFiles.stream().map(File::getName).toList());
-            return;
+    /**
+     * Upload images to a channel, for their attachment URLs to be shared with other channels.
+     *
+     * @param channelId  the channel ID
+     * @param imageFiles the images to upload
+     * @return a future completed with the attachment URLs, in the order of the files
+     */
+    public CompletableFuture<List<String>> uploadImages(String channelId, List<File> imageFiles) {
+        TextChannel channel = jda.getTextChannelById(channelId);
+        if (channel == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Channel " + channelId + " not found"));
+        }
+        List<CompletableFuture<Message>> futures = new ArrayList<>();
+        for (int i = 0; i < imageFiles.size(); i += MAX_FILES_PER_MESSAGE) {
+            List<File> batch = imageFiles.subList(i, Math.min(i + MAX_FILES_PER_MESSAGE, imageFiles.size()));
+            futures.add(channel.sendFiles(batch.stream().map(FileUpload::fromData).toList()).submit());
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(done -> futures.stream()
+                        .flatMap(future -> future.join().getAttachments().stream())
+                        .map(Message.Attachment::getUrl)
+                        .toList());
+    }
+
+    /**
+     * Send images already uploaded elsewhere as embeds referencing their URL, with an optional message attached to the
+     * first batch.
+     *
+     * @param channelId  the channel ID
+     * @param webhookUrl the webhook of the channel to send through, null to send as the bot
+     * @param imageUrls  the URLs of the images
+     * @param message    the message content, may be null
+     * @return a future completed once Discord acknowledged every batch
+     */
+    public CompletableFuture<?> deliverImageLinks(String channelId, String webhookUrl, List<String> imageUrls, String message) {
+        Function<MessageCreateData, RestAction<?>> sender;
+        try {
+            sender = getSender(channelId, webhookUrl);
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
         }
-        for (String channelId : channelIds) {
-            TextChannel channel = jda.getTextChannelById(channelId);
-            if (channel != null) {
-                Runnable sendTask = () -> {
-                    try {
-                        // Discord allows up to 10 files per message
-                        int batchSize = 10;
-                        for (int i = 0; i < imageFiles.size(); i += batchSize) {
-                            List<File> batch = imageFiles.subList(i, Math.min(i + batchSize, imageFiles.size()));
-                            List<FileUpload> uploads = batch.stream().map(FileUpload::fromData).toList();
-                            if (message == null || message.isEmpty() || i > 0) {
-                                channel.sendFiles(uploads).queue();
-                            } else {
-                                channel.sendMessage(message).addFiles(uploads).queue();
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.error("Error sending images to Discord channel {}", channelId, e);
-                    }
-                };
-                scheduler.schedule(sendTask, 1, TimeUnit.SECONDS);
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < imageUrls.size(); i += Message.MAX_EMBED_COUNT) {
+            List<MessageEmbed> embeds = imageUrls.subList(i, Math.min(i + Message.MAX_EMBED_COUNT, imageUrls.size())).stream()
+                    .map(url -> new EmbedBuilder().setImage(url).build())
+                    .toList();
+            MessageCreateBuilder builder = new MessageCreateBuilder().setEmbeds(embeds);
+            if (message != null && !message.isEmpty() && i == 0) {
+                builder.setContent(message);
             }
+            futures.add(sender.apply(builder.build()).submit());
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Create a webhook in a channel, for its subscriptions to be delivered outside the rate limits of the bot.
+     *
+     * @param channel the channel
+     * @return a future completed with the webhook URL
+     */
+    public CompletableFuture<String> createWebhook(TextChannel channel) {
+        return channel.createWebhook(jda.getSelfUser().getName()).submit().thenApply(Webhook::getUrl);
+    }
+
+    /**
+     * Resolve how to send to a channel: through its webhook if it has one, as the bot otherwise.
+     */
+    private Function<MessageCreateData, RestAction<?>> getSender(String channelId, String webhookUrl) {
+        if (webhookUrl != null) {
+            IncomingWebhookClient webhook = WebhookClient.createClient(jda, webhookUrl);
+            return webhook::sendMessage;
+        }
+        TextChannel channel = jda.getTextChannelById(channelId);
+        if (channel == null) {
+            throw new IllegalStateException("Channel " + channelId + " not found");
         }
+        return channel::sendMessage;
     }
 
     public void updateActivity(String activity) {
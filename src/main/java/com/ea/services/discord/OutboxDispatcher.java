@@ -0,0 +1,407 @@
+package com.ea.services.discord;
+
+import com.ea.entities.discord.OutboxEntity;
+import com.ea.enums.DeliveryPriority;
+import com.ea.enums.LeasedJob;
+import com.ea.enums.OutboxMessageType;
+import com.ea.enums.OutboxStatus;
+import com.ea.enums.SubscriptionType;
+import com.ea.repositories.discord.OutboxRepository;
+import com.ea.services.core.IngestionMetrics;
+import com.ea.services.core.LeaseService;
+import com.ea.utils.EventFormatUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox to Discord.
+ * Due entries are sent in batches. Before sending, the node claims them (IN_FLIGHT) for twice the send timeout, so that
+ * a node taking the OUTBOX lease over does not send them again meanwhile; claims left behind by a node that stopped
+ * are released once expired. Delivered entries are kept as DONE for a day, failed ones are retried with exponential
+ * backoff until the maximum number of attempts is reached, after which they are kept as DEAD, see /deadletters.
+ * Delivery is at-least-once: an entry whose acknowledgement timed out is sent again.
+ * <p>
+ * Consecutive text entries of a channel are merged into as few messages as the Discord limit allows, in order. The
+ * last, partial message of a channel is held for up to services.outbox.coalesce-window after its oldest entry was
+ * queued, so that the logs of the next polling ticks can join it.
+ * <p>
+ * Each message takes a token from the {@link DeliveryRateLimiter}; channels with scoreboards go first. A channel whose
+ * bucket is empty is skipped until the next drain, its entries stay pending and keep their order. The fan-out upload of
+ * a scoreboard takes one more token, once for all the channels sharing it. The tokens of a drain that cannot claim its
+ * entries are given back.
+ * <p>
+ * When a fan-out channel is configured, the images of a scoreboard are uploaded once to it, and every subscribed
+ * channel gets embeds referencing the attachment URLs. The URLs are stored on the entries, retries don't upload again.
+ * <p>
+ * Logs and scoreboards of a subscription with a webhook are sent through it, with a rate limit bucket of their own.
+ * A deleted webhook is dropped from the subscriptions, the retries are sent as the bot.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+    private static final String WEBHOOK_BUCKET_PREFIX = "webhook:";
+    private static final Duration DONE_RETENTION = Duration.ofDays(1);
+
+    private final OutboxRepository outboxRepository;
+    private final DiscordBotService discordBotService;
+    private final IngestionMetrics ingestionMetrics;
+    private final LeaseService leaseService;
+    private final DeliveryRateLimiter deliveryRateLimiter;
+    private final ChannelSubscriptionService channelSubscriptionService;
+    @Value("${services.bot-activity-enabled}")
+    private boolean botActivityEnabled;
+    @Value("${services.outbox.batch-size}")
+    private int batchSize;
+    @Value("${services.outbox.max-attempts}")
+    private int maxAttempts;
+    @Value("${services.outbox.retry-delay}")
+    private long retryDelay;
+    @Value("${services.outbox.send-timeout}")
+    private long sendTimeout;
+    @Value("${services.outbox.coalesce-window}")
+    private long coalesceWindow;
+    @Value("${services.outbox.fanout-channel}")
+    private String fanoutChannelId;
+
+    @Scheduled(fixedDelayString = "${services.outbox.dispatch-interval}")
+    public void dispatch() {
+        if (!botActivityEnabled) {
+            log.debug("Bot activity is disabled, skipping outbox dispatch");
+            return;
+        }
+        if (!leaseService.isLeader(LeasedJob.OUTBOX)) {
+            return;
+        }
+
+        int released = outboxRepository.releaseExpiredClaims(LocalDateTime.now());
+        if (released > 0) {
+            log.warn("Released {} outbox entries whose claim expired, they are sent again", released);
+        }
+        List<OutboxEntity> batch = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                OutboxStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+        ingestionMetrics.recordOutboxDepth(batch.isEmpty() ? 0 : outboxRepository.countByStatus(OutboxStatus.PENDING));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime holdAfter = LocalDateTime.now().minus(Duration.ofMillis(coalesceWindow));
+        List<List<OutboxEntity>> groups = groupDeliveries(batch);
+        Map<String, List<OutboxEntity>> lastGroups = new HashMap<>();
+        groups.forEach(group -> lastGroups.put(group.get(0).getChannelId(), group));
+        Set<String> throttledChannels = new HashSet<>();
+        // Image paths whose fan-out upload is already charged to this drain
+        Set<String> chargedUploads = new HashSet<>();
+        // Buckets charged by this drain, one entry per token
+        List<String> chargedBuckets = new ArrayList<>();
+        // Uploads to the fan-out channel started by this drain, by image paths
+        Map<String, CompletableFuture<List<String>>> uploads = new HashMap<>();
+        Map<List<OutboxEntity>, String> webhookUrls = new LinkedHashMap<>();
+        for (List<OutboxEntity> group : prioritize(groups)) {
+            String channelId = group.get(0).getChannelId();
+            if (throttledChannels.contains(channelId)
+                    || (group == lastGroups.get(channelId) && isHeld(group, holdAfter))) {
+                continue;
+            }
+            String webhookUrl = getWebhookUrl(group.get(0));
+            // Webhooks have their own bucket, apart from the bot's messages and status edits in the channel
+            String bucket = webhookUrl != null ? WEBHOOK_BUCKET_PREFIX + channelId : channelId;
+            if (!deliveryRateLimiter.tryAcquire(bucket, priorityOf(group))) {
+                // The later messages of the channel wait too, to keep their order
+                throttledChannels.add(channelId);
+                continue;
+            }
+            String imagePaths = group.get(0).getImagePaths();
+            if (needsUpload(group.get(0)) && !chargedUploads.contains(imagePaths)) {
+                if (!deliveryRateLimiter.tryAcquire(fanoutChannelId, DeliveryPriority.SCOREBOARD)) {
+                    deliveryRateLimiter.giveBack(bucket);
+                    throttledChannels.add(channelId);
+                    continue;
+                }
+                chargedUploads.add(imagePaths);
+                chargedBuckets.add(fanoutChannelId);
+            }
+            chargedBuckets.add(bucket);
+            webhookUrls.put(group, webhookUrl);
+        }
+        if (webhookUrls.isEmpty()) {
+            return;
+        }
+        if (!claim(webhookUrls.keySet())) {
+            // Nothing is sent, the next drain gets the tokens
+            chargedBuckets.forEach(deliveryRateLimiter::giveBack);
+            return;
+        }
+
+        // Submit the whole batch, then wait for the acknowledgements
+        Map<List<OutboxEntity>, CompletableFuture<?>> deliveries = new LinkedHashMap<>();
+        webhookUrls.forEach((group, webhookUrl) -> {
+            CompletableFuture<?> delivery = send(group, webhookUrl, uploads);
+            group.forEach(entry -> recordFreshness(entry, delivery));
+            deliveries.put(group, delivery);
+        });
+
+        List<OutboxEntity> delivered = new ArrayList<>();
+        List<OutboxEntity> failed = new ArrayList<>();
+        Instant deadline = Instant.now().plusMillis(sendTimeout);
+        for (Map.Entry<List<OutboxEntity>, CompletableFuture<?>> delivery : deliveries.entrySet()) {
+            List<OutboxEntity> group = delivery.getKey();
+            try {
+                long remaining = Math.max(0, Duration.between(Instant.now(), deadline).toMillis());
+                delivery.getValue().get(remaining, TimeUnit.MILLISECONDS);
+                group.forEach(this::markDelivered);
+                delivered.addAll(group);
+            } catch (ExecutionException e) {
+                if (webhookUrls.get(group) != null && isUnknownWebhook(e.getCause())) {
+                    log.warn("Webhook of channel {} was deleted, falling back to bot messages", group.get(0).getChannelId());
+                    channelSubscriptionService.removeWebhook(webhookUrls.get(group));
+                }
+                group.forEach(entry -> markFailed(entry, e.getCause()));
+                failed.addAll(group);
+            } catch (TimeoutException e) {
+                delivery.getValue().cancel(true);
+                group.forEach(entry -> markFailed(entry, e));
+                failed.addAll(group);
+            } catch (InterruptedException e) {
+                // Entries not acknowledged yet stay claimed, they are sent again once the claim expires
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        storeImageUrls(uploads, failed);
+        outboxRepository.saveAll(delivered);
+        outboxRepository.saveAll(failed);
+        log.debug("Outbox dispatch: {} delivered in {} messages, {} failed, {} channels throttled",
+                delivered.size(), deliveries.size(), failed.size(), throttledChannels.size());
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeDelivered() {
+        if (!leaseService.isLeader(LeasedJob.OUTBOX)) {
+            return;
+        }
+        outboxRepository.deleteByStatusAndDeliveredAtBefore(OutboxStatus.DONE, LocalDateTime.now().minus(DONE_RETENTION));
+    }
+
+    /**
+     * Claim the entries about to be sent. If another node claimed some of them in the meantime, which only happens
+     * while the OUTBOX lease moves, this node gives its claims back and skips the drain.
+     */
+    private boolean claim(Collection<List<OutboxEntity>> groups) {
+        List<Long> ids = groups.stream().flatMap(List::stream).map(OutboxEntity::getId).toList();
+        String nodeId = leaseService.getNodeId();
+        LocalDateTime lockedUntil = LocalDateTime.now().plus(Duration.ofMillis(2 * sendTimeout));
+        if (outboxRepository.claim(ids, nodeId, lockedUntil) < ids.size()) {
+            outboxRepository.unclaim(ids, nodeId);
+            log.warn("Outbox entries already claimed by another node, skipping the drain");
+            return false;
+        }
+        groups.stream().flatMap(List::stream).forEach(entry -> {
+            entry.setStatus(OutboxStatus.IN_FLIGHT);
+            entry.setLockedBy(nodeId);
+            entry.setLockedUntil(lockedUntil);
+        });
+        return true;
+    }
+
+    /**
+     * Split a batch into deliveries, one message each. Consecutive text entries of a channel are merged as long as the
+     * message fits the Discord limit; any other entry is a delivery of its own. Deliveries keep the order of the batch
+     * within each channel.
+     *
+     * @param batch the entries, oldest first
+     * @return the deliveries, the entries of each in order
+     */
+    public static List<List<OutboxEntity>> groupDeliveries(List<OutboxEntity> batch) {
+        List<List<OutboxEntity>> deliveries = new ArrayList<>();
+        // Text delivery still open for merging, and its length, by channel
+        Map<String, List<OutboxEntity>> openGroups = new HashMap<>();
+        Map<String, Integer> openLengths = new HashMap<>();
+        for (OutboxEntity entry : batch) {
+            String channelId = entry.getChannelId();
+            if (entry.getMessageType() != OutboxMessageType.TEXT) {
+                openGroups.remove(channelId);
+                deliveries.add(List.of(entry));
+                continue;
+            }
+            int length = entry.getContent().length();
+            List<OutboxEntity> group = openGroups.get(channelId);
+            if (group != null && openLengths.get(channelId) + 1 + length <= EventFormatUtils.MAX_MESSAGE_LENGTH) {
+                group.add(entry);
+                openLengths.merge(channelId, 1 + length, Integer::sum);
+            } else {
+                group = new ArrayList<>(List.of(entry));
+                deliveries.add(group);
+                openGroups.put(channelId, group);
+                openLengths.put(channelId, length);
+            }
+        }
+        return deliveries;
+    }
+
+    /**
+     * Order deliveries by the priority of their channel, the highest priority among its deliveries, keeping the order
+     * within each channel.
+     *
+     * @param deliveries the deliveries, as grouped by {@link #groupDeliveries(List)}
+     * @return the deliveries in sending order
+     */
+    public static List<List<OutboxEntity>> prioritize(List<List<OutboxEntity>> deliveries) {
+        Map<String, DeliveryPriority> channelPriorities = new HashMap<>();
+        for (List<OutboxEntity> delivery : deliveries) {
+            channelPriorities.merge(delivery.get(0).getChannelId(), priorityOf(delivery),
+                    (current, other) -> current.compareTo(other) <= 0 ? current : other);
+        }
+        List<List<OutboxEntity>> sorted = new ArrayList<>(deliveries);
+        sorted.sort(Comparator.comparing(delivery -> channelPriorities.get(delivery.get(0).getChannelId())));
+        return sorted;
+    }
+
+    private static DeliveryPriority priorityOf(List<OutboxEntity> delivery) {
+        return delivery.get(0).getMessageType() == OutboxMessageType.IMAGES ? DeliveryPriority.SCOREBOARD : DeliveryPriority.LOG;
+    }
+
+    /**
+     * The last delivery of a channel is held while it is text with room left and its oldest entry is still within the
+     * coalescing window.
+     */
+    private static boolean isHeld(List<OutboxEntity> group, LocalDateTime holdAfter) {
+        OutboxEntity first = group.get(0);
+        return first.getMessageType() == OutboxMessageType.TEXT
+                && first.getCreatedAt().isAfter(holdAfter)
+                && group.stream().mapToInt(entry -> entry.getContent().length() + 1).sum() < EventFormatUtils.MAX_MESSAGE_LENGTH;
+    }
+
+    /**
+     * Record the queueing time, the time Discord took to acknowledge, and the end-to-end lag once the entry is delivered.
+     * Attached to the delivery without chaining, so that a timeout still cancels the request itself.
+     */
+    private void recordFreshness(OutboxEntity entry, CompletableFuture<?> delivery) {
+        LocalDateTime sentAt = LocalDateTime.now();
+        long sentNanos = System.nanoTime();
+        delivery.whenComplete((result, error) -> {
+            if (error != null) {
+                return;
+            }
+            ingestionMetrics.recordStage(IngestionMetrics.STAGE_QUEUEING, entry.getGameGenre(), Duration.between(entry.getCreatedAt(), sentAt));
+            ingestionMetrics.recordStage(IngestionMetrics.STAGE_DELIVERY, entry.getGameGenre(), Duration.ofNanos(System.nanoTime() - sentNanos));
+            if (entry.getSourceTime() != null) {
+                ingestionMetrics.recordLag(entry.getMessageType(), entry.getGameGenre(), Duration.between(entry.getSourceTime(), LocalDateTime.now()));
+            }
+        });
+    }
+
+    private String getWebhookUrl(OutboxEntity entry) {
+        SubscriptionType subscriptionType = entry.getMessageType() == OutboxMessageType.IMAGES
+                ? SubscriptionType.SCOREBOARD
+                : SubscriptionType.LOGS;
+        return channelSubscriptionService.getWebhookUrl(entry.getChannelId(), subscriptionType).orElse(null);
+    }
+
+    private static boolean isUnknownWebhook(Throwable error) {
+        return error instanceof ErrorResponseException response && response.getErrorResponse() == ErrorResponse.UNKNOWN_WEBHOOK;
+    }
+
+    private CompletableFuture<?> send(List<OutboxEntity> group, String webhookUrl, Map<String, CompletableFuture<List<String>>> uploads) {
+        OutboxEntity entry = group.get(0);
+        try {
+            return switch (entry.getMessageType()) {
+                case TEXT -> discordBotService.deliverMessage(entry.getChannelId(), webhookUrl,
+                        group.stream().map(OutboxEntity::getContent).collect(Collectors.joining("\n")));
+                case IMAGES -> {
+                    if (entry.getImageUrls() != null) {
+                        // Already uploaded to the fan-out channel
+                        List<String> imageUrls = List.of(entry.getImageUrls().split("\n"));
+                        yield discordBotService.deliverImageLinks(entry.getChannelId(), webhookUrl, imageUrls, entry.getContent());
+                    }
+                    List<File> imageFiles = Arrays.stream(entry.getImagePaths().split("\n")).map(File::new).toList();
+                    Optional<File> missing = imageFiles.stream().filter(file -> !file.exists()).findFirst();
+                    if (missing.isPresent()) {
+                        // Retrying won't bring the file back
+                        entry.setAttempts(maxAttempts);
+                        yield CompletableFuture.failedFuture(new IllegalStateException("Image " + missing.get() + " not found"));
+                    }
+                    if (needsUpload(entry)) {
+                        // Channels of the same scoreboard share one upload
+                        yield uploads.computeIfAbsent(entry.getImagePaths(),
+                                        paths -> discordBotService.uploadImages(fanoutChannelId, imageFiles))
+                                .thenCompose(imageUrls ->
+                                        discordBotService.deliverImageLinks(entry.getChannelId(), webhookUrl, imageUrls, entry.getContent()));
+                    }
+                    yield discordBotService.deliverImages(entry.getChannelId(), webhookUrl, imageFiles, entry.getContent());
+                }
+            };
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean needsUpload(OutboxEntity entry) {
+        return entry.getMessageType() == OutboxMessageType.IMAGES && entry.getImageUrls() == null
+                && fanoutChannelId != null && !fanoutChannelId.isBlank();
+    }
+
+    /**
+     * Keep the URLs of the images uploaded by this drain on their entries, including the ones not sent yet.
+     */
+    private void storeImageUrls(Map<String, CompletableFuture<List<String>>> uploads, List<OutboxEntity> failed) {
+        for (Map.Entry<String, CompletableFuture<List<String>>> upload : uploads.entrySet()) {
+            if (upload.getValue().state() != Future.State.SUCCESS) {
+                continue;
+            }
+            String imageUrls = String.join("\n", upload.getValue().resultNow());
+            outboxRepository.setImageUrls(upload.getKey(), imageUrls);
+            // The failed entries are saved afterwards, they must not overwrite the URLs
+            failed.stream()
+                    .filter(entry -> upload.getKey().equals(entry.getImagePaths()))
+                    .forEach(entry -> entry.setImageUrls(imageUrls));
+        }
+    }
+
+    private void markDelivered(OutboxEntity entry) {
+        entry.setStatus(OutboxStatus.DONE);
+        entry.setDeliveredAt(LocalDateTime.now());
+        entry.setLockedBy(null);
+        entry.setLockedUntil(null);
+    }
+
+    private void markFailed(OutboxEntity entry, Throwable error) {
+        entry.setLockedBy(null);
+        entry.setLockedUntil(null);
+        entry.setAttempts(entry.getAttempts() + 1);
+        String message = String.valueOf(error.getMessage());
+        entry.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        if (entry.getAttempts() >= maxAttempts) {
+            entry.setStatus(OutboxStatus.DEAD);
+            log.error("Giving up on outbox entry #{} for channel {} after {} attempts: {}",
+                    entry.getId(), entry.getChannelId(), entry.getAttempts(), message);
+        } else {
+            entry.setStatus(OutboxStatus.PENDING);
+            long backoff = retryDelay << Math.min(entry.getAttempts() - 1, 10);
+            entry.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoff)));
+            log.warn("Failed to deliver outbox entry #{} to channel {} (attempt {}), retrying in {} ms: {}",
+                    entry.getId(), entry.getChannelId(), entry.getAttempts(), backoff, message);
+        }
+    }
+}
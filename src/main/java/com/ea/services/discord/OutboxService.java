@@ -0,0 +1,121 @@
+package com.ea.services.discord;
+
+import com.ea.entities.discord.OutboxEntity;
+import com.ea.enums.GameGenre;
+import com.ea.enums.OutboxMessageType;
+import com.ea.enums.OutboxStatus;
+import com.ea.repositories.discord.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service responsible for turning rendered notifications into outbox entries.
+ * Entries are persisted by the caller, together with its checkpoint, and delivered later by the {@link OutboxDispatcher}.
+ * Also gives access to the dead letters, the entries given up after the last attempt.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxRepository outboxRepository;
+
+    @Value("${services.bot-activity-enabled}")
+    private boolean botActivityEnabled;
+
+    /**
+     * Create one text notification per channel.
+     *
+     * @param channelIds the channels to notify
+     * @param message    the message content
+     * @param gameGenre  the genre of the message
+     * @param sourceTime the timestamp of the oldest event in the message, null to skip freshness metrics
+     * @return the outbox entries, not yet persisted
+     */
+    public List<OutboxEntity> createMessages(List<String> channelIds, String message, GameGenre gameGenre, LocalDateTime sourceTime) {
+        if (!botActivityEnabled) {
+            log.debug("Bot activity is disabled, skipping message: {}", message);
+            return List.of();
+        }
+        if (message == null || message.isEmpty()) {
+            return List.of();
+        }
+        return channelIds.stream().map(channelId -> {
+            OutboxEntity entry = new OutboxEntity();
+            entry.setChannelId(channelId);
+            entry.setMessageType(OutboxMessageType.TEXT);
+            entry.setContent(message);
+            entry.setGameGenre(gameGenre);
+            entry.setSourceTime(sourceTime);
+            return entry;
+        }).toList();
+    }
+
+    /**
+     * Create one image notification per channel. Images are referenced by path, they must stay on disk until delivered.
+     *
+     * @param channelIds the channels to notify
+     * @param imageFiles the rendered images
+     * @param message    the message content, may be null
+     * @param gameGenre  the genre of the images
+     * @param sourceTime the timestamp of the event behind the images, null to skip freshness metrics
+     * @return the outbox entries, not yet persisted
+     */
+    public List<OutboxEntity> createImages(List<String> channelIds, List<File> imageFiles, String message,
+                                           GameGenre gameGenre, LocalDateTime sourceTime) {
+        if (!botActivityEnabled) {
+            log.debug("Bot activity is disabled, skipping images: {}", imageFiles.stream().map(File::getName).toList());
+            return List.of();
+        }
+        if (imageFiles.isEmpty()) {
+            return List.of();
+        }
+        String imagePaths = imageFiles.stream().map(File::getAbsolutePath).collect(Collectors.joining("\n"));
+        return channelIds.stream().map(channelId -> {
+            OutboxEntity entry = new OutboxEntity();
+            entry.setChannelId(channelId);
+            entry.setMessageType(OutboxMessageType.IMAGES);
+            entry.setContent(message);
+            entry.setImagePaths(imagePaths);
+            entry.setGameGenre(gameGenre);
+            entry.setSourceTime(sourceTime);
+            return entry;
+        }).toList();
+    }
+
+    /**
+     * @param limit the maximum number of entries
+     * @return the dead entries, most recent first
+     */
+    public List<OutboxEntity> getDeadLetters(int limit) {
+        return outboxRepository.findByStatusOrderByIdDesc(OutboxStatus.DEAD, PageRequest.of(0, limit));
+    }
+
+    /**
+     * @return the number of dead entries
+     */
+    public long countDeadLetters() {
+        return outboxRepository.countByStatus(OutboxStatus.DEAD);
+    }
+
+    /**
+     * Give dead entries a fresh series of attempts.
+     *
+     * @param id the entry to requeue, null for every dead entry
+     * @return the number of entries requeued
+     */
+    public int requeueDeadLetters(Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        int requeued = id != null ? outboxRepository.requeueDead(id, now) : outboxRepository.requeueAllDead(now);
+        log.info("Requeued {} dead outbox entries", requeued);
+        return requeued;
+    }
+}
@@ -1,20 +1,17 @@
 package com.ea.services.discord;
 
-import com.ea.entities.core.GameConnectionEntity;
-import com.ea.entities.core.GameEntity;
-import com.ea.entities.core.PersonaConnectionEntity;
 import com.ea.enums.Game;
 import com.ea.enums.GameGenre;
-import com.ea.repositories.core.GameRepository;
-import com.ea.repositories.core.PersonaConnectionRepository;
+import com.ea.model.LiveGame;
+import com.ea.model.LiveGameConnection;
+import com.ea.model.LiveSession;
+import com.ea.services.core.PresenceState;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Service responsible for generating status message content for different game genres.
@@ -25,8 +22,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StatusMessageContentService {
 
-    private final PersonaConnectionRepository personaConnectionRepository;
-    private final GameRepository gameRepository;
+    private final PresenceState presenceState;
 
     /**
      * Generate status message content for a specific game genre.
@@ -48,25 +44,13 @@ public class StatusMessageContentService {
             return "No games found for genre: " + gameGenre.name();
         }
 
-        // Get client and server VERS codes
-        List<String> clientVersCodes = Arrays.asList(Game.getClientVersCodesByGenre(gameGenre));
-        List<String> serverVersCodes = Arrays.asList(Game.getServerVersCodesByGenre(gameGenre));
-
-        // Fetch data
-        List<PersonaConnectionEntity> lobbyPlayers = personaConnectionRepository.findPlayersInLobbyByVers(clientVersCodes);
-        List<GameEntity> activeGames = gameRepository.findActiveGamesByServerVers(serverVersCodes);
-
-        // Group data by game
-        Map<Game, List<PersonaConnectionEntity>> playersByGame = groupPlayersByGame(lobbyPlayers);
-        Map<Game, List<GameEntity>> gamesByGame = groupActiveGamesByGame(activeGames, games);
-
         // Build the status message
         StringBuilder content = new StringBuilder();
 
         // Display status for ALL games in enum order (even without activity)
         for (Game game : games) {
-            List<PersonaConnectionEntity> gameLobbyPlayers = playersByGame.getOrDefault(game, List.of());
-            List<GameEntity> gameActiveGames = gamesByGame.getOrDefault(game, List.of());
+            List<LiveSession> gameLobbyPlayers = presenceState.getLobbyPlayers(game);
+            List<LiveGame> gameActiveGames = presenceState.getActiveGames(game);
 
             addGameSection(content, game, gameLobbyPlayers, gameActiveGames);
         }
@@ -74,35 +58,19 @@ public class StatusMessageContentService {
         return content.toString();
     }
 
-    /**
-     * Group lobby players by their corresponding Game enum.
-     */
-    private Map<Game, List<PersonaConnectionEntity>> groupPlayersByGame(List<PersonaConnectionEntity> lobbyPlayers) {
-        return lobbyPlayers.stream()
-                .collect(Collectors.groupingBy(player -> Game.findByVers(player.getVers())));
-    }
-
-    /**
-     * Group active games by their corresponding Game enum.
-     */
-    private Map<Game, List<GameEntity>> groupActiveGamesByGame(List<GameEntity> activeGames, Game[] genreGames) {
-        return activeGames.stream()
-                .collect(Collectors.groupingBy(gameEntity -> Game.findByServerVers(gameEntity.getVers())));
-    }
-
     /**
      * Add a complete section for a specific game.
      */
     private void addGameSection(StringBuilder content, Game game,
-                                List<PersonaConnectionEntity> lobbyPlayers,
-                                List<GameEntity> activeGames) {
+                                List<LiveSession> lobbyPlayers,
+                                List<LiveGame> activeGames) {
         content.append("## ").append(game.getName()).append("\n\n");
 
         // Lobby players subsection
         content.append("**Players in Lobby (").append(lobbyPlayers.size()).append(")**\n");
         if (!lobbyPlayers.isEmpty()) {
-            for (PersonaConnectionEntity player : lobbyPlayers) {
-                content.append("🔸 ").append(player.getPersona().getPers()).append("\n");
+            for (LiveSession player : lobbyPlayers) {
+                content.append("🔸 ").append(player.getPersona()).append("\n");
             }
         } else {
             content.append("*No players in lobby*\n");
@@ -112,9 +80,9 @@ public class StatusMessageContentService {
         // Active games subsection
         content.append("**Active Games (").append(activeGames.size()).append(")**\n");
         if (!activeGames.isEmpty()) {
-            for (GameEntity gameEntity : activeGames) {
-                addGameDetails(content, gameEntity);
-                if (activeGames.indexOf(gameEntity) < activeGames.size() - 1)
+            for (int i = 0; i < activeGames.size(); i++) {
+                addGameDetails(content, activeGames.get(i));
+                if (i < activeGames.size() - 1)
                     content.append("\n");
             }
         } else {
@@ -126,10 +94,10 @@ public class StatusMessageContentService {
     /**
      * Add details for a specific game instance.
      */
-    private void addGameDetails(StringBuilder content, GameEntity game) {
+    private void addGameDetails(StringBuilder content, LiveGame game) {
         String status = determineGameStatus(game);
-        int playerCount = game.getGameConnections() != null ?
-                (int) game.getGameConnections().stream().filter(gc -> gc.getEndTime() == null).count() : 0;
+        List<LiveGameConnection> players = presenceState.getPlayers(game.getId());
+        int playerCount = players.size();
 
         // Game header with status and player count - using dash and code quotes
         content.append("🔹 `").append(game.getName()).append("` ");
@@ -141,31 +109,26 @@ public class StatusMessageContentService {
         content.append(" players)\n");
 
         // List players in game with double -- indentation
-        if (game.getGameConnections() != null && !game.getGameConnections().isEmpty()) {
-            List<GameConnectionEntity> activePlayers = game.getGameConnections().stream()
-                    .filter(gc -> gc.getEndTime() == null)
-                    .sorted((a, b) -> Boolean.compare(b.isHost(), a.isHost())) // Hosts first
-                    .toList();
-
-            if (!activePlayers.isEmpty()) {
-                for (GameConnectionEntity connection : activePlayers) {
-                    String playerName = connection.getPersonaConnection().getPersona().getPers();
-                    content.append("  🔸 ");
-                    if (connection.isHost()) {
-                        content.append(playerName).append(" 👑");
-                    } else {
-                        content.append(playerName);
-                    }
-                    content.append("\n");
-                }
+        List<LiveGameConnection> activePlayers = players.stream()
+                .sorted((a, b) -> Boolean.compare(b.isHost(), a.isHost())) // Hosts first
+                .toList();
+
+        for (LiveGameConnection connection : activePlayers) {
+            String playerName = connection.getPersona();
+            content.append("  🔸 ");
+            if (connection.isHost()) {
+                content.append(playerName).append(" 👑");
+            } else {
+                content.append(playerName);
             }
+            content.append("\n");
         }
     }
 
     /**
      * Determine the status of a game based on its properties.
      */
-    private String determineGameStatus(GameEntity game) {
+    private String determineGameStatus(LiveGame game) {
         if (game.isStarted()) {
             return "🟢 Started";
         } else {
@@ -185,6 +148,7 @@ public class StatusMessageContentService {
         content.append("## Player count\n\n\n");
 
         int totalPlayers = 0;
+        Map<GameGenre, Integer> playerCounts = presenceState.getPlayerCountsByGenre();
 
         for (GameGenre genre : GameGenre.values()) {
             // Skip ALL genre itself
@@ -192,7 +156,7 @@ public class StatusMessageContentService {
                 continue;
             }
 
-            int genreCount = getPlayerCountForGenre(genre);
+            int genreCount = playerCounts.getOrDefault(genre, 0);
             totalPlayers += genreCount;
 
             String emoji = getEmojiForGenre(genre);
@@ -209,42 +173,6 @@ public class StatusMessageContentService {
         return content.toString();
     }
 
-    /**
-     * Get the total player count for a specific genre (lobby + in-game combined).
-     * For FPS games, hosts are not counted as they don't play (they only host).
-     * For other games, hosts are counted as active players.
-     */
-    private int getPlayerCountForGenre(GameGenre genre) {
-        Game[] games = Game.getGamesByGenre(genre);
-        if (games.length == 0) {
-            return 0;
-        }
-
-        // Get client and server VERS codes
-        List<String> clientVersCodes = Arrays.asList(Game.getClientVersCodesByGenre(genre));
-        List<String> serverVersCodes = Arrays.asList(Game.getServerVersCodesByGenre(genre));
-
-        // Count players in lobby
-        List<PersonaConnectionEntity> lobbyPlayers = personaConnectionRepository.findPlayersInLobbyByVers(clientVersCodes);
-        int lobbyCount = lobbyPlayers.size();
-
-        // Count players in active games
-        List<GameEntity> activeGames = gameRepository.findActiveGamesByServerVers(serverVersCodes);
-        int inGameCount = 0;
-        boolean excludeHosts = (genre == GameGenre.FPS); // Don't count hosts for FPS games (dedicated servers)
-
-        for (GameEntity game : activeGames) {
-            if (game.getGameConnections() != null) {
-                inGameCount += (int) game.getGameConnections().stream()
-                        .filter(gc -> gc.getEndTime() == null)
-                        .filter(gc -> !excludeHosts || !gc.getPersonaConnection().isHost())
-                        .count();
-            }
-        }
-
-        return lobbyCount + inGameCount;
-    }
-
     /**
      * Get the emoji for a game genre.
      */
@@ -1,23 +1,44 @@
 package com.ea.services.discord;
 
 import com.ea.entities.discord.StatusMessageEntity;
+import com.ea.entities.discord.StatusMessagePage;
+import com.ea.enums.DeliveryPriority;
 import com.ea.enums.GameGenre;
+import com.ea.enums.LeasedJob;
 import com.ea.enums.SubscriptionType;
 import com.ea.repositories.discord.DiscordStatusMessageRepository;
+import com.ea.services.core.AdaptiveTrigger;
+import com.ea.services.core.GenreShardService;
+import com.ea.services.core.LeaseService;
+import com.ea.services.core.PresenceState;
+import com.ea.utils.StatusLayoutUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service responsible for managing Discord status messages.
@@ -26,145 +47,339 @@ import java.util.concurrent.CountDownLatch;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class StatusMessageService {
+public class StatusMessageService implements SchedulingConfigurer {
 
     private final DiscordStatusMessageRepository statusMessageRepository;
     private final StatusMessageContentService statusMessageContentService;
     private final ChannelSubscriptionService channelSubscriptionService;
     private final JDA jda;
+    private final AdaptiveTrigger statusUpdateTrigger;
+    private final LeaseService leaseService;
+    private final GenreShardService genreShardService;
+    private final PresenceState presenceState;
+    private final DeliveryRateLimiter deliveryRateLimiter;
+    // Entries whose update has not completed yet
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Pages last rendered for each genre, only touched by the status tick
+    private final Map<GameGenre, StatusSnapshot> snapshots = new EnumMap<>(GameGenre.class);
 
     @Value("${services.bot-activity-enabled}")
     private boolean botActivityEnabled;
+    @Value("${services.polling.status.refresh-interval}")
+    private long refreshInterval;
+    @Value("${services.polling.status.spread-window}")
+    private long spreadWindow;
+    @Value("${services.polling.status.channel-interval}")
+    private long channelInterval;
+    @Value("${services.polling.status.update-timeout}")
+    private long updateTimeout;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addTriggerTask(this::updateStatusMessages, statusUpdateTrigger);
+    }
 
     /**
-     * Scheduled method to update all status messages every 30 seconds.
+     * Scheduled method to update all status messages, more often while players are online.
      * Processes all game genres and updates their respective status messages.
      */
-    @Scheduled(fixedDelay = 30000)
     public void updateStatusMessages() {
         if (!botActivityEnabled) {
             log.debug("Bot activity updates are disabled");
             return;
         }
+        boolean sharded = genreShardService.isEnabled();
+        if (!sharded && !leaseService.isLeader(LeasedJob.STATUS)) {
+            log.debug("Status messages are updated by another node");
+            return;
+        }
 
         List<StatusMessageEntity> entries = statusMessageRepository.findAll();
+        if (sharded) {
+            // Each node updates the status messages of the genres it owns
+            Set<GameGenre> ownedGenres = genreShardService.getOwnedGenres();
+            entries = entries.stream().filter(entry -> ownedGenres.contains(entry.getGameGenre())).toList();
+        }
         if (entries.isEmpty()) {
             log.debug("No status message subscriptions found");
             return;
         }
 
-        // Use CountDownLatch to wait for all async Discord operations to complete
-        CountDownLatch latch = new CountDownLatch(entries.size());
-        List<StatusMessageEntity> updatedEntries = new CopyOnWriteArrayList<>();
+        // Snapshot each genre once per tick, every channel of the genre gets the same pages
+        Map<GameGenre, List<String>> pagesByGenre = new EnumMap<>(GameGenre.class);
+        for (StatusMessageEntity entry : entries) {
+            pagesByGenre.computeIfAbsent(entry.getGameGenre(), this::getStatusPages);
+        }
 
+        // Only edit the messages whose content changed, or that were not edited for a while
+        LocalDateTime staleBefore = LocalDateTime.now().minus(Duration.ofMillis(refreshInterval));
+        Map<String, List<StatusUpdate>> updatesByChannel = new LinkedHashMap<>();
+        int updateCount = 0;
         for (StatusMessageEntity entry : entries) {
-            updateStatusMessageForEntry(entry, updatedEntries, latch);
+            if (inFlight.contains(entry.getId())) {
+                // Still being updated by a previous tick that timed out
+                continue;
+            }
+            List<String> bodies = layoutPages(entry, pagesByGenre.get(entry.getGameGenre()));
+            boolean stale = entry.getUpdatedAt().isBefore(staleBefore);
+            if (stale || hasChanged(entry, bodies)) {
+                int footerPage = pagesByGenre.get(entry.getGameGenre()).size() - 1;
+                updatesByChannel.computeIfAbsent(entry.getChannelId(), channelId -> new ArrayList<>())
+                        .add(new StatusUpdate(entry, bodies, footerPage, stale));
+                updateCount++;
+            }
+        }
+        if (updatesByChannel.isEmpty()) {
+            log.debug("No status message changed");
+            return;
+        }
+
+        // Spread the channels over the window instead of sending every edit at once; the statuses of a channel are
+        // updated one after the other, spaced by the channel interval, to stay within its rate limit bucket
+        CountDownLatch latch = new CountDownLatch(updateCount);
+        long slot = spreadWindow / updatesByChannel.size();
+        int channelIndex = 0;
+        for (List<StatusUpdate> channelUpdates : updatesByChannel.values()) {
+            startChannelUpdates(channelUpdates, 0, channelIndex++ * slot, latch);
         }
 
         try {
-            // Wait for all Discord operations to complete
-            latch.await();
+            // Entries are saved as soon as they are updated, the wait only keeps the ticks from overlapping
+            if (!latch.await(spreadWindow + updateTimeout, TimeUnit.MILLISECONDS)) {
+                log.warn("{} status messages still being updated after {} ms", latch.getCount(), spreadWindow + updateTimeout);
+            }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             log.error("Interrupted while waiting for Discord message operations to complete", e);
         }
+    }
 
-        // Save all updated entries after all Discord operations are done
-        if (!updatedEntries.isEmpty()) {
-            statusMessageRepository.saveAll(updatedEntries);
-            log.debug("Saved {} updated status message entries", updatedEntries.size());
+    private void startChannelUpdates(List<StatusUpdate> channelUpdates, int index, long delay, CountDownLatch latch) {
+        if (index == channelUpdates.size()) {
+            return;
         }
+        StatusUpdate update = channelUpdates.get(index);
+        inFlight.add(update.entry.getId());
+        update.start(delay, () -> {
+            inFlight.remove(update.entry.getId());
+            latch.countDown();
+            startChannelUpdates(channelUpdates, index + 1, channelInterval, latch);
+        });
     }
 
     /**
-     * Update status message for a specific entry.
+     * Pages to show in the channel of an entry. The number of messages of a channel never shrinks so that they keep
+     * their order: pages no longer needed are blanked.
      */
-    private void updateStatusMessageForEntry(StatusMessageEntity entry,
-                                             List<StatusMessageEntity> updatedEntries,
-                                             CountDownLatch latch) {
-        TextChannel channel = jda.getTextChannelById(entry.getChannelId());
-        if (channel == null) {
-            log.warn("Channel {} not found for status message", entry.getChannelId());
-            latch.countDown();
-            return;
+    private List<String> layoutPages(StatusMessageEntity entry, List<String> pages) {
+        List<String> bodies = new ArrayList<>(pages);
+        while (bodies.size() < entry.getPages().size()) {
+            bodies.add(StatusLayoutUtils.EMPTY_PAGE);
         }
+        return bodies;
+    }
 
-        try {
-            // Generate content for the specific game genre
-            String content = generateStatusMessageContent(entry.getGameGenre());
+    private boolean hasChanged(StatusMessageEntity entry, List<String> bodies) {
+        if (entry.getPages().size() != bodies.size()) {
+            return true;
+        }
+        for (int i = 0; i < bodies.size(); i++) {
+            StatusMessagePage page = entry.getPages().get(i);
+            if (page.getMessageId() == null || !fingerprint(bodies.get(i)).equals(page.getContentHash())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Update of the messages of an entry with the pages of its genre.
+     * Pages are sent or edited one after the other to keep them in order. Only the changed pages are edited, plus the
+     * page holding the timestamp footer; every page is edited when the status is stale. Each request times out after
+     * the update timeout, and the entry is saved once done, even partially. Status edits come last in the rate limits:
+     * when the {@link DeliveryRateLimiter} holds a page back, the update stops and the remaining pages are retried on the
+     * next tick.
+     */
+    @RequiredArgsConstructor
+    private class StatusUpdate {
+        private final StatusMessageEntity entry;
+        private final List<String> bodies;
+        private final int footerPage;
+        private final boolean refreshAll;
+        private TextChannel channel;
+        private Runnable onDone;
+
+        void start(long delay, Runnable onDone) {
+            this.onDone = onDone;
+            channel = jda.getTextChannelById(entry.getChannelId());
+            if (channel == null) {
+                log.warn("Channel {} not found for status message", entry.getChannelId());
+                onDone.run();
+                return;
+            }
+            try {
+                updatePage(0, delay);
+            } catch (Exception e) {
+                log.error("Failed to process status message for channel {} and genre {}",
+                        entry.getChannelId(), entry.getGameGenre(), e);
+                onDone.run();
+            }
+        }
+
+        private void updatePage(int index, long delay) {
+            if (index == bodies.size()) {
+                entry.setUpdatedAt(LocalDateTime.now());
+                log.debug("Updated status message for genre {} in channel {}", entry.getGameGenre(), entry.getChannelId());
+                finish(true);
+                return;
+            }
+            String body = bodies.get(index);
+            String fingerprint = fingerprint(body);
+            StatusMessagePage page = index < entry.getPages().size() ? entry.getPages().get(index) : null;
+            boolean changed = page == null || page.getMessageId() == null || !fingerprint.equals(page.getContentHash());
+            if (!changed && !refreshAll && index != footerPage) {
+                updatePage(index + 1, delay);
+                return;
+            }
 
-            if (entry.getMessageId() == null) {
+            if (delay > 0) {
+                // Wait for the slot of the update before taking a token, the rate limits count the request when it is sent
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+                    try {
+                        updatePage(index, 0);
+                    } catch (Exception e) {
+                        log.error("Failed to process status message for channel {} and genre {}",
+                                entry.getChannelId(), entry.getGameGenre(), e);
+                        finish(true);
+                    }
+                });
+                return;
+            }
+            if (!deliveryRateLimiter.tryAcquire(entry.getChannelId(), DeliveryPriority.STATUS)) {
+                log.debug("Status message page {} for channel {} held back by the rate limits", index, entry.getChannelId());
+                finish(true);
+                return;
+            }
+
+            // The relative timestamp keeps counting in the clients, it shows when the content last changed
+            String content = index == footerPage ? body + "---\n*Last updated <t:" + Instant.now().getEpochSecond() + ":R>*" : body;
+            if (page == null || page.getMessageId() == null) {
                 // Send new message
                 channel.sendMessage(content)
+                        .timeout(updateTimeout, TimeUnit.MILLISECONDS)
                         .queue(msg -> {
-                            entry.setMessageId(msg.getId());
-                            entry.setUpdatedAt(LocalDateTime.now());
-                            updatedEntries.add(entry);
-                            latch.countDown();
-                            log.debug("Sent new status message for genre {} in channel {}",
-                                    entry.getGameGenre(), entry.getChannelId());
+                            StatusMessagePage sent = new StatusMessagePage(msg.getId(), fingerprint);
+                            if (page == null) {
+                                entry.getPages().add(sent);
+                            } else {
+                                entry.getPages().set(index, sent);
+                            }
+                            updatePage(index + 1, 0);
                         }, error -> {
-                            log.error("Failed to send status message for channel {} and genre {}",
-                                    entry.getChannelId(), entry.getGameGenre(), error);
-                            latch.countDown();
+                            log.error("Failed to send status message page {} for channel {} and genre {}",
+                                    index, entry.getChannelId(), entry.getGameGenre(), error);
+                            // Keep the pages already sent, the others are retried on the next update
+                            finish(true);
                         });
             } else {
                 // Edit existing message
-                channel.editMessageById(entry.getMessageId(), content)
+                channel.editMessageById(page.getMessageId(), content)
+                        .timeout(updateTimeout, TimeUnit.MILLISECONDS)
                         .queue(success -> {
-                            entry.setUpdatedAt(LocalDateTime.now());
-                            updatedEntries.add(entry);
-                            latch.countDown();
-                            log.debug("Updated status message for genre {} in channel {}",
-                                    entry.getGameGenre(), entry.getChannelId());
+                            page.setContentHash(fingerprint);
+                            updatePage(index + 1, 0);
                         }, error -> {
                             // Check if message was deleted (error code 10008: Unknown Message)
                             if (error.getMessage() != null && error.getMessage().contains("10008")) {
-                                log.info("Status message {} was deleted, removing subscriptions for channel {} and genre {}",
-                                        entry.getMessageId(), entry.getChannelId(), entry.getGameGenre());
-                                // Delete both the status message and channel subscription since the message was removed
-                                try {
-                                    statusMessageRepository.delete(entry);
-                                    channelSubscriptionService.unsubscribe(entry.getGuildId(), SubscriptionType.STATUS, entry.getGameGenre());
-                                    log.info("Successfully removed all subscriptions for guild {} and genre {}", entry.getGuildId(), entry.getGameGenre());
-                                } catch (Exception deleteError) {
-                                    log.error("Failed to delete subscriptions for guild {} and genre {}",
-                                            entry.getGuildId(), entry.getGameGenre(), deleteError);
+                                if (index == 0) {
+                                    unsubscribeDeletedStatus(entry, page);
+                                    finish(false);
+                                    return;
                                 }
+                                // A page other than the first was removed, it is sent again on the next update
+                                page.setMessageId(null);
                             } else {
-                                log.error("Failed to edit status message for channel {} and genre {}",
-                                        entry.getChannelId(), entry.getGameGenre(), error);
+                                log.error("Failed to edit status message page {} for channel {} and genre {}",
+                                        index, entry.getChannelId(), entry.getGameGenre(), error);
                             }
-                            latch.countDown();
+                            finish(true);
                         });
             }
-        } catch (Exception e) {
-            log.error("Failed to process status message for channel {} and genre {}",
-                    entry.getChannelId(), entry.getGameGenre(), e);
-            latch.countDown();
+        }
+
+        private void finish(boolean save) {
+            try {
+                if (save) {
+                    statusMessageRepository.save(entry);
+                }
+            } catch (Exception e) {
+                log.error("Failed to save status message for channel {} and genre {}", entry.getChannelId(), entry.getGameGenre(), e);
+            } finally {
+                onDone.run();
+            }
+        }
+    }
+
+    private void unsubscribeDeletedStatus(StatusMessageEntity entry, StatusMessagePage page) {
+        log.info("Status message {} was deleted, removing subscriptions for channel {} and genre {}",
+                page.getMessageId(), entry.getChannelId(), entry.getGameGenre());
+        // Delete both the status message and channel subscription since the message was removed
+        try {
+            statusMessageRepository.delete(entry);
+            channelSubscriptionService.unsubscribe(entry.getGuildId(), SubscriptionType.STATUS, entry.getGameGenre());
+            log.info("Successfully removed all subscriptions for guild {} and genre {}", entry.getGuildId(), entry.getGameGenre());
+        } catch (Exception deleteError) {
+            log.error("Failed to delete subscriptions for guild {} and genre {}",
+                    entry.getGuildId(), entry.getGameGenre(), deleteError);
         }
     }
 
     /**
-     * Generate the content for a status message based on the game genre.
+     * Pages of the status of a genre. They are only rendered again when the presence of the genre changed, quiet
+     * genres reuse the pages of the previous tick.
      */
-    private String generateStatusMessageContent(GameGenre gameGenre) {
+    private List<String> getStatusPages(GameGenre gameGenre) {
+        long version = presenceState.getVersion(gameGenre);
+        StatusSnapshot snapshot = snapshots.get(gameGenre);
+        if (snapshot != null && snapshot.version() == version) {
+            return snapshot.pages();
+        }
         try {
-            String content = statusMessageContentService.generateStatusContent(gameGenre);
-
-            // Add timestamp footer
-            long unixTimestamp = Instant.now().getEpochSecond();
-            content += "---\n*Last updated <t:" + unixTimestamp + ":R>*";
-
-            return content;
+            List<String> pages = StatusLayoutUtils.paginate(statusMessageContentService.generateStatusContent(gameGenre),
+                    StatusLayoutUtils.PAGE_LENGTH);
+            snapshots.put(gameGenre, new StatusSnapshot(version, pages));
+            return pages;
         } catch (Exception e) {
+            // Not kept, the content is generated again on the next tick
             log.error("Failed to generate status content for genre {}", gameGenre, e);
-            return "❌ **Error generating status for " + gameGenre.name() + "**\n\n" +
-                    "Unable to retrieve current game information. Please try again later.\n\n" +
-                    "*Last updated <t:" + Instant.now().getEpochSecond() + ":R>*";
+            return List.of(generateErrorContent(gameGenre));
         }
     }
 
+    /**
+     * Generate the content shown when the status of a genre cannot be generated, without the timestamp footer.
+     */
+    private String generateErrorContent(GameGenre gameGenre) {
+        return "❌ **Error generating status for " + gameGenre.name() + "**\n\n" +
+                "Unable to retrieve current game information. Please try again later.\n\n";
+    }
+
+    /**
+     * Fingerprint of a status content, to detect when it changed.
+     */
+    private String fingerprint(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM provides SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StatusSnapshot(long version, List<String> pages) {
+    }
+
     /**
      * Create or update a status message subscription for a guild and game genre.
      *
@@ -177,16 +392,15 @@ public class StatusMessageService {
     public StatusMessageEntity upsertStatusMessage(String guildId, String channelId, GameGenre gameGenre) {
         StatusMessageEntity entity = statusMessageRepository.findByGuildIdAndGameGenre(guildId, gameGenre)
                 .orElse(new StatusMessageEntity());
+        // Forget the messages if channel changed to force new message creation
+        if (!channelId.equals(entity.getChannelId())) {
+            entity.getPages().clear();
+        }
         entity.setGuildId(guildId);
         entity.setChannelId(channelId);
         entity.setGameGenre(gameGenre);
         entity.setUpdatedAt(LocalDateTime.now());
 
-        // Clear message ID if channel changed to force new message creation
-        if (!channelId.equals(entity.getChannelId())) {
-            entity.setMessageId(null);
-        }
-
         StatusMessageEntity saved = statusMessageRepository.save(entity);
         log.info("Upserted status message subscription for guild {} genre {} in channel {}",
                 guildId, gameGenre, channelId);
@@ -2,14 +2,8 @@ package com.ea.services.stats;
 
 import com.ea.entities.core.GameConnectionEntity;
 import com.ea.entities.core.GameEntity;
-import com.ea.entities.discord.ChannelSubscriptionEntity;
 import com.ea.entities.stats.MohhGameReportEntity;
-import com.ea.enums.GameGenre;
 import com.ea.enums.MapMoHH;
-import com.ea.enums.SubscriptionType;
-import com.ea.services.discord.ChannelSubscriptionService;
-import com.ea.services.discord.DiscordBotService;
-import com.ea.utils.GameVersUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.OutputType;
@@ -43,19 +37,23 @@ import java.util.stream.Collectors;
 public class MohhScoreboardService {
 
     private final TemplateEngine templateEngine;
-    private final DiscordBotService discordBotService;
-    private final ChannelSubscriptionService channelSubscriptionService;
     @Value("${reports.path}")
     private String reportsPath;
 
-    public void generateScoreboard(GameEntity game) {
+    /**
+     * Render the scoreboard of a finished game.
+     *
+     * @param game the finished game
+     * @return the scoreboard images, or an empty list if the game is skipped or rendering failed
+     */
+    public List<File> generateScoreboard(GameEntity game) {
         log.info("Generating scoreboard for game #{}", game.getId());
         try {
             Context baseContext = new Context();
             GameInfoResult gameInfo = setGameInfoIntoContextChunkable(baseContext, game);
             if (!gameInfo.proceed) {
                 log.info("Skipping game #{}", game.getId());
-                return;
+                return List.of();
             }
 
             try (InputStream cssStream = getClass().getResourceAsStream("/static/mohh/styles.css")) {
@@ -114,23 +112,10 @@ public class MohhScoreboardService {
                 }
             }
 
-            // Get the game genre based on the game's VERS
-            GameGenre gameGenre = GameVersUtils.getGenreForVers(game.getVers());
-            if (gameGenre == null) {
-                log.warn("Unknown game genre for VERS: {}, defaulting to FPS", game.getVers());
-                gameGenre = GameGenre.FPS;
-            }
-
-            // Get subscribers for the specific game genre
-            List<ChannelSubscriptionEntity> scoreboardSubs = channelSubscriptionService.getAllByTypeAndGenre(SubscriptionType.SCOREBOARD, gameGenre);
-            List<String> channelIds = scoreboardSubs.stream().map(ChannelSubscriptionEntity::getChannelId).toList();
-
-            if (!channelIds.isEmpty()) {
-                discordBotService.sendImages(channelIds, imageFiles, null);
-            }
-
+            return imageFiles;
         } catch (Exception e) {
             log.error("Error generating scoreboard for game #{}", game.getId(), e);
+            return List.of();
         }
     }
 
@@ -2,15 +2,9 @@ package com.ea.services.stats;
 
 import com.ea.entities.core.GameConnectionEntity;
 import com.ea.entities.core.GameEntity;
-import com.ea.entities.discord.ChannelSubscriptionEntity;
 import com.ea.entities.stats.NfsGameReportEntity;
-import com.ea.enums.GameGenre;
-import com.ea.enums.SubscriptionType;
 import com.ea.enums.nfs.*;
 import com.ea.repositories.stats.NfsGameReportRepository;
-import com.ea.services.discord.ChannelSubscriptionService;
-import com.ea.services.discord.DiscordBotService;
-import com.ea.utils.GameVersUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.OutputType;
@@ -46,13 +40,17 @@ public class NfsScoreboardService {
     private static final String PSP_NFS_06 = "PSP_NFS06"; // Most Wanted
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
     private final TemplateEngine templateEngine;
-    private final DiscordBotService discordBotService;
-    private final ChannelSubscriptionService channelSubscriptionService;
     private final NfsGameReportRepository nfsGameReportRepository;
     @Value("${reports.path}")
     private String reportsPath;
 
-    public void generateScoreboard(GameEntity game) {
+    /**
+     * Render the scoreboard of a finished game.
+     *
+     * @param game the finished game
+     * @return the scoreboard images, or an empty list if the game is skipped or rendering failed
+     */
+    public List<File> generateScoreboard(GameEntity game) {
         log.info("Generating NFS scoreboard for game #{}", game.getId());
         try {
             // Extract all reports from game connections
@@ -63,7 +61,7 @@ public class NfsScoreboardService {
 
             if (reports.isEmpty()) {
                 log.info("No NFS game reports found for game #{}", game.getId());
-                return;
+                return List.of();
             }
 
             // Check if at least one player completed the race (racetime > 0 or pos > 0)
@@ -73,7 +71,7 @@ public class NfsScoreboardService {
 
             if (!hasValidRace) {
                 log.info("Skipping game #{} - no valid race results", game.getId());
-                return;
+                return List.of();
             }
 
             // Sort reports by position
@@ -228,25 +226,10 @@ public class NfsScoreboardService {
             String htmlContent = templateEngine.process("nfs/scoreboard", context);
             File imageFile = renderHtmlToImage(htmlContent, game.getId());
 
-            // Post to Discord
-            GameGenre gameGenre = GameVersUtils.getGenreForVers(game.getVers());
-            if (gameGenre == null) {
-                log.warn("Unknown game genre for VERS: {}, defaulting to RACING", game.getVers());
-                gameGenre = GameGenre.RACING;
-            }
-
-            List<ChannelSubscriptionEntity> scoreboardSubs = channelSubscriptionService
-                    .getAllByTypeAndGenre(SubscriptionType.SCOREBOARD, gameGenre);
-            List<String> channelIds = scoreboardSubs.stream()
-                    .map(ChannelSubscriptionEntity::getChannelId)
-                    .toList();
-
-            if (!channelIds.isEmpty()) {
-                discordBotService.sendImages(channelIds, List.of(imageFile), null);
-            }
-
+            return List.of(imageFile);
         } catch (Exception e) {
             log.error("Error generating NFS scoreboard for game #{}", game.getId(), e);
+            return List.of();
         }
     }
 
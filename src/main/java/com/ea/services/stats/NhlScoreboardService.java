@@ -3,16 +3,10 @@ package com.ea.services.stats;
 import com.ea.entities.core.GameConnectionEntity;
 import com.ea.entities.core.GameEntity;
 import com.ea.entities.core.PersonaEntity;
-import com.ea.entities.discord.ChannelSubscriptionEntity;
 import com.ea.entities.stats.NhlGameReportEntity;
 import com.ea.entities.stats.NhlPersonaStatsEntity;
-import com.ea.enums.GameGenre;
 import com.ea.enums.NhlTeam;
-import com.ea.enums.SubscriptionType;
 import com.ea.repositories.stats.NhlPersonaStatsRepository;
-import com.ea.services.discord.ChannelSubscriptionService;
-import com.ea.services.discord.DiscordBotService;
-import com.ea.utils.GameVersUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.OutputType;
@@ -41,13 +35,17 @@ import java.util.*;
 public class NhlScoreboardService {
 
     private final TemplateEngine templateEngine;
-    private final DiscordBotService discordBotService;
-    private final ChannelSubscriptionService channelSubscriptionService;
     private final NhlPersonaStatsRepository nhlPersonaStatsRepository;
     @Value("${reports.path}")
     private String reportsPath;
 
-    public void generateScoreboard(GameEntity game) {
+    /**
+     * Render the scoreboard of a finished game.
+     *
+     * @param game the finished game
+     * @return the scoreboard images, or an empty list if the game is skipped or rendering failed
+     */
+    public List<File> generateScoreboard(GameEntity game) {
         log.info("Generating scoreboard for game #{}", game.getId());
 
         try {
@@ -60,7 +58,7 @@ public class NhlScoreboardService {
 
             if (connections.size() != 2) {
                 log.warn("NHL game #{} does not have exactly 2 game reports, skipping", game.getId());
-                return;
+                return List.of();
             }
 
             // Check that at least one player has a score > 0
@@ -69,7 +67,7 @@ public class NhlScoreboardService {
 
             if (!hasValidScore) {
                 log.warn("NHL game #{} has no valid scores (all scores are 0), skipping", game.getId());
-                return;
+                return List.of();
             }
 
             // Identify home/away players
@@ -138,23 +136,10 @@ public class NhlScoreboardService {
             String htmlContent = templateEngine.process("nhl/template", context);
             File imageFile = renderHtmlToImage(htmlContent, game.getId());
 
-            // Get the game genre based on the game's VERS
-            GameGenre gameGenre = GameVersUtils.getGenreForVers(game.getVers());
-            if (gameGenre == null) {
-                log.warn("Unknown game genre for VERS: {}, defaulting to HOCKEY", game.getVers());
-                gameGenre = GameGenre.HOCKEY;
-            }
-
-            // Get subscribers for the specific game genre
-            List<ChannelSubscriptionEntity> scoreboardSubs = channelSubscriptionService.getAllByTypeAndGenre(SubscriptionType.SCOREBOARD, gameGenre);
-            List<String> channelIds = scoreboardSubs.stream().map(ChannelSubscriptionEntity::getChannelId).toList();
-
-            if (!channelIds.isEmpty()) {
-                discordBotService.sendImages(channelIds, Collections.singletonList(imageFile), null);
-            }
-
+            return Collections.singletonList(imageFile);
         } catch (Exception e) {
             log.error("Error generating NHL scoreboard for game #{}", game.getId(), e);
+            return List.of();
         }
     }
 
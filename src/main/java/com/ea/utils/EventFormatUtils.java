@@ -0,0 +1,102 @@
+package com.ea.utils;
+
+import com.ea.enums.GameGenre;
+import com.ea.model.Event;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class distributing player events by genre and rendering them as Discord messages.
+ */
+public class EventFormatUtils {
+
+    public static final int MAX_MESSAGE_LENGTH = 2000;
+
+    /**
+     * Partition events by genre in a single pass. Events of an unknown genre are dropped.
+     *
+     * @param events the events
+     * @return the events of each genre that has at least one, in their original order, keyed in genre order
+     */
+    public static Map<GameGenre, List<Event>> groupByGenre(List<Event> events) {
+        Map<GameGenre, List<Event>> eventsByGenre = new EnumMap<>(GameGenre.class);
+        for (Event event : events) {
+            if (event.gameGenre() != null) {
+                eventsByGenre.computeIfAbsent(event.gameGenre(), genre -> new ArrayList<>()).add(event);
+            }
+        }
+        return eventsByGenre;
+    }
+
+    /**
+     * Render an event as a single Markdown line.
+     *
+     * @param event the event
+     * @return the formatted message
+     */
+    public static String format(Event event) {
+        return switch (event.type()) {
+            case CONNECTED -> "🟢 `" + event.gameTitle() + "` **" + event.persona() + "** connected";
+            case DISCONNECTED -> "🔴 `" + event.gameTitle() + "` **" + event.persona() + "** disconnected";
+            case JOINED_GAME -> "➡️ `" + event.gameTitle() + "` **" + event.persona() + "** joined game `" + event.gameName() + "`";
+            case LEFT_GAME -> "⬅️ `" + event.gameTitle() + "` **" + event.persona() + "** left game `" + event.gameName() + "`";
+        };
+    }
+
+    /**
+     * Render events as Discord messages, one line per event, split so that no message exceeds the Discord limit.
+     *
+     * @param events the events, sorted
+     * @return the messages
+     */
+    public static List<String> formatMessages(List<Event> events) {
+        return partitionMessages(events).stream().map(EventFormatUtils::formatMessage).toList();
+    }
+
+    /**
+     * Split events into the groups rendered as one Discord message each, so that no message exceeds the Discord limit.
+     *
+     * @param events the events, sorted
+     * @return the events of each message, in order
+     */
+    public static List<List<Event>> partitionMessages(List<Event> events) {
+        List<List<Event>> partitions = new ArrayList<>();
+        List<Event> partition = new ArrayList<>();
+        int length = 0;
+        for (Event event : events) {
+            int lineLength = Math.min(format(event).length(), MAX_MESSAGE_LENGTH);
+            if (!partition.isEmpty() && length + 1 + lineLength > MAX_MESSAGE_LENGTH) {
+                partitions.add(partition);
+                partition = new ArrayList<>();
+                length = 0;
+            }
+            length += partition.isEmpty() ? lineLength : 1 + lineLength;
+            partition.add(event);
+        }
+        if (!partition.isEmpty()) {
+            partitions.add(partition);
+        }
+        return partitions;
+    }
+
+    /**
+     * Render events as a single Discord message, one line per event. A line longer than the Discord limit is cut.
+     *
+     * @param events the events of a partition, sorted
+     * @return the message
+     */
+    public static String formatMessage(List<Event> events) {
+        StringBuilder message = new StringBuilder();
+        for (Event event : events) {
+            String line = format(event);
+            if (!message.isEmpty()) {
+                message.append('\n');
+            }
+            message.append(line, 0, Math.min(line.length(), MAX_MESSAGE_LENGTH));
+        }
+        return message.toString();
+    }
+}
@@ -78,4 +78,15 @@ public class GameVersUtils {
         }
         return game != null ? game.getGameGenre() : null;
     }
+
+    /**
+     * Get the display name of a game for a given client VERS code.
+     *
+     * @param vers the client VERS code
+     * @return the game name, e.g. [PSP] NHL 07, or the VERS code itself if the game is unknown
+     */
+    public static String getDisplayNameForVers(String vers) {
+        Game game = Game.findByVers(vers);
+        return game != null ? game.getName() : vers;
+    }
 }
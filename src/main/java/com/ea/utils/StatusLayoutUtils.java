@@ -0,0 +1,52 @@
+package com.ea.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class splitting status content into pages that fit in a Discord message.
+ */
+public class StatusLayoutUtils {
+
+    // Room left on each page for the timestamp footer
+    public static final int PAGE_LENGTH = EventFormatUtils.MAX_MESSAGE_LENGTH - 64;
+    // Content of the pages left over when the status shrinks, Discord rejects empty messages
+    public static final String EMPTY_PAGE = "\u200B";
+    private static final Pattern SECTION_START = Pattern.compile("(?m)(?=^## )");
+    private static final Pattern LINE_END = Pattern.compile("(?<=\n)");
+
+    /**
+     * Split content into pages. Sections (starting with a "## " title) are kept on a single page when they fit, so
+     * that a change in one game moves as few page boundaries as possible; longer sections are split between lines.
+     *
+     * @param content    the content
+     * @param pageLength the maximum length of a page
+     * @return at least one page
+     */
+    public static List<String> paginate(String content, int pageLength) {
+        List<String> pages = new ArrayList<>();
+        StringBuilder page = new StringBuilder();
+        for (String section : SECTION_START.split(content)) {
+            if (!page.isEmpty() && page.length() + section.length() > pageLength) {
+                pages.add(page.toString());
+                page.setLength(0);
+            }
+            if (section.length() <= pageLength) {
+                page.append(section);
+                continue;
+            }
+            for (String line : LINE_END.split(section)) {
+                if (!page.isEmpty() && page.length() + line.length() > pageLength) {
+                    pages.add(page.toString());
+                    page.setLength(0);
+                }
+                page.append(line, 0, Math.min(line.length(), pageLength));
+            }
+        }
+        if (!page.isEmpty() || pages.isEmpty()) {
+            pages.add(page.toString());
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS discord.OUTBOX (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    channel_id VARCHAR(32) NOT NULL,
+    message_type VARCHAR(16) NOT NULL,
+    content VARCHAR(4000),
+    image_paths VARCHAR(4000),
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(1024),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS outbox_status_next_attempt_at_idx ON discord.OUTBOX (status, next_attempt_at);
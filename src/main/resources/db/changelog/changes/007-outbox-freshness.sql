@@ -0,0 +1,3 @@
+-- Genre and source timestamp of each notification, used to measure how long events take to reach Discord
+ALTER TABLE discord.OUTBOX ADD COLUMN game_genre VARCHAR(32);
+ALTER TABLE discord.OUTBOX ADD COLUMN source_time TIMESTAMP;
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS discord.JOB_LEASE (
+    job_name VARCHAR(64) PRIMARY KEY,
+    owner_id VARCHAR(128),
+    expires_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO discord.JOB_LEASE (job_name, owner_id, expires_at) VALUES
+('EVENTS', NULL, '1970-01-01 00:00:00'),
+('STATUS', NULL, '1970-01-01 00:00:00'),
+('IP_CHECK', NULL, '1970-01-01 00:00:00'),
+('OUTBOX', NULL, '1970-01-01 00:00:00');
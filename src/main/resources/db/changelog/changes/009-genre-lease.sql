@@ -0,0 +1,10 @@
+INSERT INTO discord.JOB_LEASE (job_name, owner_id, expires_at) VALUES
+('GENRE_ALL', NULL, '1970-01-01 00:00:00'),
+('GENRE_FOOTBALL', NULL, '1970-01-01 00:00:00'),
+('GENRE_FIGHTING', NULL, '1970-01-01 00:00:00'),
+('GENRE_AMERICAN_FOOTBALL', NULL, '1970-01-01 00:00:00'),
+('GENRE_BASKETBALL', NULL, '1970-01-01 00:00:00'),
+('GENRE_RACING', NULL, '1970-01-01 00:00:00'),
+('GENRE_HOCKEY', NULL, '1970-01-01 00:00:00'),
+('GENRE_FPS', NULL, '1970-01-01 00:00:00'),
+('GENRE_GOLF', NULL, '1970-01-01 00:00:00');
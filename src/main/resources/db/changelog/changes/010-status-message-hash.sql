@@ -0,0 +1,2 @@
+-- Fingerprint of the content of each status message, to skip edits when nothing changed
+ALTER TABLE discord.STATUS_MESSAGE ADD COLUMN content_hash VARCHAR(64);
@@ -0,0 +1,15 @@
+-- Status messages can span several Discord messages, one row per message in channel order
+CREATE TABLE IF NOT EXISTS discord.STATUS_MESSAGE_PAGE (
+    status_message_id BIGINT NOT NULL REFERENCES discord.STATUS_MESSAGE (id) ON DELETE CASCADE,
+    page_index INT NOT NULL,
+    message_id VARCHAR(32),
+    content_hash VARCHAR(64),
+    PRIMARY KEY (status_message_id, page_index)
+);
+
+-- Existing status messages become their first page
+INSERT INTO discord.STATUS_MESSAGE_PAGE (status_message_id, page_index, message_id, content_hash)
+SELECT id, 0, message_id, content_hash FROM discord.STATUS_MESSAGE WHERE message_id IS NOT NULL;
+
+ALTER TABLE discord.STATUS_MESSAGE DROP COLUMN message_id;
+ALTER TABLE discord.STATUS_MESSAGE DROP COLUMN content_hash;
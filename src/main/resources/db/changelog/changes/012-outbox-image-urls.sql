@@ -0,0 +1,2 @@
+-- Attachment URLs of images uploaded once to the fan-out channel, shared by the notifications of every channel
+ALTER TABLE discord.OUTBOX ADD COLUMN image_urls VARCHAR(8000);
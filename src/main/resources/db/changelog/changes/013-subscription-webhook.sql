@@ -0,0 +1,2 @@
+-- Webhook of the channel, when its logs and scoreboards are delivered through it instead of as the bot
+ALTER TABLE discord.CHANNEL_SUBSCRIPTION ADD COLUMN webhook_url VARCHAR(512);
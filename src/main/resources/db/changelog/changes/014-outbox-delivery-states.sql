@@ -0,0 +1,5 @@
+-- Delivery states: entries are claimed (IN_FLIGHT) by the node sending them, kept as DONE once delivered and DEAD after the last attempt
+UPDATE discord.OUTBOX SET status = 'DEAD' WHERE status = 'FAILED';
+ALTER TABLE discord.OUTBOX ADD COLUMN locked_by VARCHAR(64);
+ALTER TABLE discord.OUTBOX ADD COLUMN locked_until TIMESTAMP;
+ALTER TABLE discord.OUTBOX ADD COLUMN delivered_at TIMESTAMP;
@@ -0,0 +1,13 @@
+-- Player events held by the compaction window, committed with the checkpoint so that a restart or another node resumes them
+CREATE TABLE IF NOT EXISTS discord.HELD_EVENT (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_id BIGINT NOT NULL,
+    event_time TIMESTAMP NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    game_genre VARCHAR(32) NOT NULL,
+    persona VARCHAR(255),
+    game_title VARCHAR(255),
+    game_name VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS held_event_game_genre_idx ON discord.HELD_EVENT (game_genre);
@@ -0,0 +1,6 @@
+-- Games whose scoreboard missed the tick deadline, given up after services.scoreboard.max-attempts misses
+CREATE TABLE IF NOT EXISTS discord.SCOREBOARD_MISS (
+    game_id BIGINT PRIMARY KEY,
+    misses INT NOT NULL,
+    last_miss_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,149 @@
+package com.ea;
+
+import com.ea.entities.discord.OutboxEntity;
+import com.ea.enums.DeliveryPriority;
+import com.ea.enums.LeasedJob;
+import com.ea.enums.OutboxMessageType;
+import com.ea.repositories.discord.OutboxRepository;
+import com.ea.services.core.IngestionMetrics;
+import com.ea.services.core.LeaseService;
+import com.ea.services.discord.ChannelSubscriptionService;
+import com.ea.services.discord.DeliveryRateLimiter;
+import com.ea.services.discord.DiscordBotService;
+import com.ea.services.discord.OutboxDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeliveryRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private long now;
+    private DeliveryRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new DeliveryRateLimiter(meterRegistry);
+        ReflectionTestUtils.setField(rateLimiter, "clock", (LongSupplier) () -> now);
+        ReflectionTestUtils.setField(rateLimiter, "globalCapacity", 10);
+        ReflectionTestUtils.setField(rateLimiter, "globalPeriod", 1000L);
+        ReflectionTestUtils.setField(rateLimiter, "channelCapacity", 5);
+        ReflectionTestUtils.setField(rateLimiter, "channelPeriod", 5000L);
+    }
+
+    @Test
+    void channelBucketRefillsOverItsPeriod() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.tryAcquire("A", DeliveryPriority.LOG));
+        }
+        assertFalse(rateLimiter.tryAcquire("A", DeliveryPriority.LOG));
+        assertTrue(rateLimiter.tryAcquire("B", DeliveryPriority.LOG));
+
+        now += 1_100_000_000L;
+
+        assertTrue(rateLimiter.tryAcquire("A", DeliveryPriority.LOG));
+        assertFalse(rateLimiter.tryAcquire("A", DeliveryPriority.LOG));
+        assertEquals(2, meterRegistry.counter("delivery.throttled", "priority", "log").count());
+    }
+
+    @Test
+    void givenBackTokenCanBeTakenAgain() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.tryAcquire("A", DeliveryPriority.LOG));
+        }
+        assertFalse(rateLimiter.tryAcquire("A", DeliveryPriority.LOG));
+
+        rateLimiter.giveBack("A");
+
+        assertTrue(rateLimiter.tryAcquire("A", DeliveryPriority.LOG));
+        assertFalse(rateLimiter.tryAcquire("A", DeliveryPriority.LOG));
+    }
+
+    @Test
+    void lowerPrioritiesLeaveTheReserveToScoreboards() {
+        // Half of the global bucket is reserved above status edits
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.tryAcquire("S" + i, DeliveryPriority.STATUS));
+        }
+        assertFalse(rateLimiter.tryAcquire("S5", DeliveryPriority.STATUS));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire("L" + i, DeliveryPriority.LOG));
+        }
+        assertFalse(rateLimiter.tryAcquire("L3", DeliveryPriority.LOG));
+        assertTrue(rateLimiter.tryAcquire("I0", DeliveryPriority.SCOREBOARD));
+        assertTrue(rateLimiter.tryAcquire("I1", DeliveryPriority.SCOREBOARD));
+        assertFalse(rateLimiter.tryAcquire("I2", DeliveryPriority.SCOREBOARD));
+    }
+
+    @Test
+    void dispatcherSendsScoreboardsFirstAndKeepsThrottledChannelsInOrder() throws IOException {
+        ReflectionTestUtils.setField(rateLimiter, "globalCapacity", 4);
+
+        // Fake Discord endpoint recording the messages it acknowledged
+        List<String> received = new ArrayList<>();
+        DiscordBotService discordBotService = mock(DiscordBotService.class);
+        when(discordBotService.deliverMessage(anyString(), isNull(), anyString())).thenAnswer(invocation -> {
+            received.add(invocation.getArgument(0) + ":" + invocation.getArgument(2));
+            return CompletableFuture.completedFuture(null);
+        });
+        when(discordBotService.deliverImages(anyString(), isNull(), anyList(), any())).thenAnswer(invocation -> {
+            received.add(invocation.getArgument(0) + ":images");
+            return CompletableFuture.completedFuture(null);
+        });
+
+        File image = Files.createTempFile("scoreboard", ".png").toFile();
+        image.deleteOnExit();
+        List<OutboxEntity> batch = List.of(
+                text("A", "a1", 1), text("B", "b1", 2), text("C", "c1", 3), images("D", image, 4));
+        OutboxRepository outboxRepository = mock(OutboxRepository.class);
+        when(outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(), any())).thenReturn(batch);
+        when(outboxRepository.claim(anyCollection(), any(), any())).thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
+        LeaseService leaseService = mock(LeaseService.class);
+        when(leaseService.isLeader(LeasedJob.OUTBOX)).thenReturn(true);
+
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxRepository, discordBotService,
+                new IngestionMetrics(meterRegistry), leaseService, rateLimiter, mock(ChannelSubscriptionService.class));
+        ReflectionTestUtils.setField(dispatcher, "botActivityEnabled", true);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 8);
+        ReflectionTestUtils.setField(dispatcher, "sendTimeout", 1000L);
+        dispatcher.dispatch();
+
+        // Four tokens, logs leave a fifth of them to scoreboards: the scoreboard goes first, the last log channel waits
+        assertEquals(List.of("D:images", "A:a1", "B:b1"), received);
+    }
+
+    private OutboxEntity text(String channelId, String content, long id) {
+        OutboxEntity entry = new OutboxEntity();
+        entry.setId(id);
+        entry.setChannelId(channelId);
+        entry.setMessageType(OutboxMessageType.TEXT);
+        entry.setContent(content);
+        // Older than the coalescing window
+        entry.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+        return entry;
+    }
+
+    private OutboxEntity images(String channelId, File image, long id) {
+        OutboxEntity entry = text(channelId, null, id);
+        entry.setMessageType(OutboxMessageType.IMAGES);
+        entry.setImagePaths(image.getAbsolutePath());
+        return entry;
+    }
+}
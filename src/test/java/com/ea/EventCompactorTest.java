@@ -0,0 +1,85 @@
+package com.ea;
+
+import com.ea.enums.EventType;
+import com.ea.enums.GameGenre;
+import com.ea.model.Event;
+import com.ea.services.core.EventCompactor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventCompactorTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private EventCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        compactor = new EventCompactor();
+        ReflectionTestUtils.setField(compactor, "compactionWindow", 15000L);
+    }
+
+    @Test
+    void reconnectWithinWindowIsCancelled() {
+        Event connect = event(1, TIME, EventType.CONNECTED, "player1");
+        Event disconnect = event(2, TIME.plusSeconds(20), EventType.DISCONNECTED, "player1");
+        Event reconnect = event(3, TIME.plusSeconds(25), EventType.CONNECTED, "player1");
+
+        EventCompactor.Compaction compaction = compactor.compact(List.of(), List.of(connect, disconnect, reconnect), TIME.plusSeconds(30));
+
+        assertEquals(List.of(connect), compaction.released());
+        assertTrue(compactor.compact(compaction.held(), List.of(), TIME.plusMinutes(5)).released().isEmpty());
+    }
+
+    @Test
+    void eventsAreHeldUntilTheWindowHasPassed() {
+        Event connect = event(1, TIME, EventType.CONNECTED, "player1");
+
+        EventCompactor.Compaction compaction = compactor.compact(List.of(), List.of(connect), TIME.plusSeconds(10));
+
+        assertTrue(compaction.released().isEmpty());
+        assertEquals(List.of(connect), compaction.held());
+        assertEquals(List.of(connect), compactor.compact(compaction.held(), List.of(), TIME.plusSeconds(20)).released());
+    }
+
+    @Test
+    void pairsAcrossTicksAreCancelled() {
+        Event leave = event(1, TIME, EventType.LEFT_GAME, "player1");
+        Event join = event(2, TIME.plusSeconds(12), EventType.JOINED_GAME, "player1");
+
+        EventCompactor.Compaction first = compactor.compact(List.of(), List.of(leave), TIME.plusSeconds(10));
+        assertTrue(first.released().isEmpty());
+        EventCompactor.Compaction second = compactor.compact(first.held(), List.of(join), TIME.plusSeconds(20));
+        assertTrue(second.released().isEmpty());
+        assertTrue(compactor.compact(second.held(), List.of(), TIME.plusMinutes(5)).released().isEmpty());
+    }
+
+    @Test
+    void differentPersonasAreNotCancelled() {
+        Event disconnect = event(1, TIME, EventType.DISCONNECTED, "player1");
+        Event connect = event(2, TIME.plusSeconds(5), EventType.CONNECTED, "player2");
+
+        assertEquals(List.of(disconnect, connect), compactor.compact(List.of(), List.of(connect, disconnect), TIME.plusMinutes(1)).released());
+    }
+
+    @Test
+    void zeroWindowDisablesCompaction() {
+        ReflectionTestUtils.setField(compactor, "compactionWindow", 0L);
+        Event disconnect = event(1, TIME, EventType.DISCONNECTED, "player1");
+        Event connect = event(2, TIME.plusSeconds(1), EventType.CONNECTED, "player1");
+
+        assertEquals(List.of(disconnect, connect), compactor.compact(List.of(), List.of(disconnect, connect), TIME.plusSeconds(2)).released());
+    }
+
+    private Event event(long id, LocalDateTime time, EventType type, String persona) {
+        String gameName = type == EventType.JOINED_GAME || type == EventType.LEFT_GAME ? "room" : null;
+        return new Event(id, time, type, GameGenre.FPS, persona, "[PSP] Medal of Honor: Heroes", gameName);
+    }
+}
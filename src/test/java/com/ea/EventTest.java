@@ -1,13 +1,16 @@
 package com.ea;
 
+import com.ea.enums.EventType;
 import com.ea.enums.GameGenre;
 import com.ea.model.Event;
+import com.ea.utils.EventFormatUtils;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -19,8 +22,8 @@ class EventTest {
         LocalDateTime earlier = LocalDateTime.of(2024, 1, 1, 12, 0);
         LocalDateTime later = LocalDateTime.of(2024, 1, 1, 12, 1);
 
-        Event event1 = new Event(1, earlier, "player1 connected", GameGenre.FPS);
-        Event event2 = new Event(2, later, "player2 connected", GameGenre.FPS);
+        Event event1 = new Event(1, earlier, EventType.CONNECTED, GameGenre.FPS, "player1", "[PSP] Medal of Honor: Heroes", null);
+        Event event2 = new Event(2, later, EventType.CONNECTED, GameGenre.FPS, "player2", "[PSP] Medal of Honor: Heroes", null);
 
         assertTrue(event1.compareTo(event2) < 0);
         assertTrue(event2.compareTo(event1) > 0);
@@ -38,8 +41,8 @@ class EventTest {
     void compareToWithSameTimeDisconnectedLast() {
         LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
 
-        Event event1 = new Event(1, time, "player1 connected", GameGenre.FPS);
-        Event event2 = new Event(2, time, "player2 disconnected", GameGenre.FPS);
+        Event event1 = new Event(1, time, EventType.CONNECTED, GameGenre.FPS, "player1", "[PSP] Medal of Honor: Heroes", null);
+        Event event2 = new Event(2, time, EventType.DISCONNECTED, GameGenre.FPS, "player2", "[PSP] Medal of Honor: Heroes", null);
 
         assertTrue(event1.compareTo(event2) < 0);
         assertTrue(event2.compareTo(event1) > 0);
@@ -57,8 +60,8 @@ class EventTest {
     void compareToWithSameTimeNeitherDisconnected() {
         LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
 
-        Event event1 = new Event(1, time, "player1 connected", GameGenre.FPS);
-        Event event2 = new Event(2, time, "player2 connected", GameGenre.FPS);
+        Event event1 = new Event(1, time, EventType.CONNECTED, GameGenre.FPS, "player1", "[PSP] Medal of Honor: Heroes", null);
+        Event event2 = new Event(2, time, EventType.CONNECTED, GameGenre.FPS, "player2", "[PSP] Medal of Honor: Heroes", null);
 
         assertTrue(event1.compareTo(event2) < 0);
         assertTrue(event2.compareTo(event1) > 0);
@@ -76,8 +79,8 @@ class EventTest {
     void compareToWithSameTimeBothDisconnected() {
         LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
 
-        Event event1 = new Event(1, time, "player1 disconnected", GameGenre.FPS);
-        Event event2 = new Event(2, time, "player2 disconnected", GameGenre.FPS);
+        Event event1 = new Event(1, time, EventType.DISCONNECTED, GameGenre.FPS, "player1", "[PSP] Medal of Honor: Heroes", null);
+        Event event2 = new Event(2, time, EventType.DISCONNECTED, GameGenre.FPS, "player2", "[PSP] Medal of Honor: Heroes", null);
 
         assertTrue(event1.compareTo(event2) < 0);
         assertTrue(event2.compareTo(event1) > 0);
@@ -90,4 +93,56 @@ class EventTest {
         assertEquals(event1, events.get(0));
         assertEquals(event2, events.get(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void compareToWithSameTimeLeaveBeforeJoin() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        Event join = new Event(1, time, EventType.JOINED_GAME, GameGenre.FPS, "player1", "[PSP] Medal of Honor: Heroes", "room2");
+        Event leave = new Event(2, time, EventType.LEFT_GAME, GameGenre.FPS, "player1", "[PSP] Medal of Honor: Heroes", "room1");
+
+        assertTrue(leave.compareTo(join) < 0);
+        assertTrue(join.compareTo(leave) > 0);
+    }
+
+    @Test
+    void formatRendersMessage() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        assertEquals("🟢 `[PSP] Medal of Honor: Heroes` **player1** connected",
+                EventFormatUtils.format(new Event(1, time, EventType.CONNECTED, GameGenre.FPS, "player1", "[PSP] Medal of Honor: Heroes", null)));
+        assertEquals("⬅️ `[PSP] Medal of Honor: Heroes` **player1** left game `room1`",
+                EventFormatUtils.format(new Event(2, time, EventType.LEFT_GAME, GameGenre.FPS, "player1", "[PSP] Medal of Honor: Heroes", "room1")));
+    }
+
+    @Test
+    void formatMessagesSplitsAtDiscordLimit() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(new Event(i, time.plusSeconds(i), EventType.CONNECTED, GameGenre.FPS, "player" + i, "[PSP] Medal of Honor: Heroes", null));
+        }
+
+        List<String> messages = EventFormatUtils.formatMessages(events);
+
+        assertTrue(messages.size() > 1);
+        assertTrue(messages.stream().allMatch(message -> message.length() <= EventFormatUtils.MAX_MESSAGE_LENGTH));
+        assertEquals(events.stream().map(EventFormatUtils::format).toList(),
+                messages.stream().flatMap(String::lines).toList());
+    }
+
+    @Test
+    void groupByGenreKeepsOrderAndDropsUnknownGenres() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Event fps1 = new Event(1, time, EventType.CONNECTED, GameGenre.FPS, "player1", "[PSP] Medal of Honor: Heroes", null);
+        Event hockey = new Event(2, time, EventType.CONNECTED, GameGenre.HOCKEY, "player2", "[PSP] NHL 07", null);
+        Event unknown = new Event(3, time, EventType.CONNECTED, null, "player3", "PSP_UNKNOWN", null);
+        Event fps2 = new Event(4, time.plusSeconds(1), EventType.DISCONNECTED, GameGenre.FPS, "player1", "[PSP] Medal of Honor: Heroes", null);
+
+        Map<GameGenre, List<Event>> eventsByGenre = EventFormatUtils.groupByGenre(List.of(fps1, hockey, unknown, fps2));
+
+        assertEquals(List.of(GameGenre.HOCKEY, GameGenre.FPS), List.copyOf(eventsByGenre.keySet()));
+        assertEquals(List.of(fps1, fps2), eventsByGenre.get(GameGenre.FPS));
+        assertEquals(List.of(hockey), eventsByGenre.get(GameGenre.HOCKEY));
+    }
+}
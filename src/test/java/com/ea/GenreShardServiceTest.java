@@ -0,0 +1,154 @@
+package com.ea;
+
+import com.ea.entities.discord.JobLeaseEntity;
+import com.ea.enums.GameGenre;
+import com.ea.repositories.discord.JobLeaseRepository;
+import com.ea.services.core.GenreShardService;
+import com.ea.services.core.LeaseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GenreShardServiceTest {
+
+    // In-memory JOB_LEASE table shared by the nodes
+    private final Map<String, JobLeaseEntity> leases = new HashMap<>();
+    private JobLeaseRepository jobLeaseRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (GameGenre genre : GameGenre.values()) {
+            JobLeaseEntity lease = new JobLeaseEntity();
+            lease.setJobName("GENRE_" + genre.name());
+            lease.setExpiresAt(LocalDateTime.MIN);
+            leases.put(lease.getJobName(), lease);
+        }
+        jobLeaseRepository = mock(JobLeaseRepository.class);
+        when(jobLeaseRepository.tryAcquire(anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+            JobLeaseEntity lease = leases.get(invocation.<String>getArgument(0));
+            String ownerId = invocation.getArgument(1);
+            if (lease == null || (!ownerId.equals(lease.getOwnerId()) && !lease.getExpiresAt().isBefore(invocation.getArgument(2)))) {
+                return 0;
+            }
+            lease.setOwnerId(ownerId);
+            lease.setExpiresAt(invocation.getArgument(3));
+            return 1;
+        });
+        when(jobLeaseRepository.renew(anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+            JobLeaseEntity lease = leases.get(invocation.<String>getArgument(0));
+            if (lease == null || !invocation.getArgument(1).equals(lease.getOwnerId())
+                    || !lease.getExpiresAt().isAfter(invocation.getArgument(2))) {
+                return 0;
+            }
+            lease.setExpiresAt(invocation.getArgument(3));
+            return 1;
+        });
+        when(jobLeaseRepository.release(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            JobLeaseEntity lease = leases.get(invocation.<String>getArgument(0));
+            lease.setExpiresAt(LocalDateTime.MIN);
+            return 1;
+        });
+        when(jobLeaseRepository.save(any())).thenAnswer(invocation -> {
+            JobLeaseEntity lease = invocation.getArgument(0);
+            leases.put(lease.getJobName(), lease);
+            return lease;
+        });
+        when(jobLeaseRepository.countByJobNameStartingWithAndExpiresAtAfter(anyString(), any())).thenAnswer(invocation ->
+                leases.values().stream()
+                        .filter(lease -> lease.getJobName().startsWith(invocation.getArgument(0))
+                                && lease.getExpiresAt().isAfter(invocation.getArgument(1)))
+                        .count());
+    }
+
+    @Test
+    void disabledShardingOwnsEveryGenre() {
+        GenreShardService shardService = new GenreShardService(newLeaseService("node-1"));
+
+        assertEquals(EnumSet.allOf(GameGenre.class), shardService.getOwnedGenres());
+        assertTrue(shardService.owns(GameGenre.FPS));
+    }
+
+    @Test
+    void singleNodeOwnsEveryGenre() {
+        GenreShardService node1 = newShardService("node-1");
+
+        node1.rebalance();
+
+        assertEquals(EnumSet.allOf(GameGenre.class), node1.getOwnedGenres());
+    }
+
+    @Test
+    void joiningNodeTakesOverItsShare() {
+        GenreShardService node1 = newShardService("node-1");
+        GenreShardService node2 = newShardService("node-2");
+        node1.rebalance();
+
+        // Node 2 sees two live nodes but no free genre yet, node 1 then hands over the genres above its share
+        node2.rebalance();
+        node1.rebalance();
+        node2.rebalance();
+
+        Set<GameGenre> owned1 = node1.getOwnedGenres();
+        Set<GameGenre> owned2 = node2.getOwnedGenres();
+        assertEquals(5, owned1.size());
+        assertEquals(4, owned2.size());
+        owned1.forEach(genre -> assertFalse(owned2.contains(genre)));
+    }
+
+    @Test
+    void handedOverGenreFencesItsWrites() {
+        GenreShardService node1 = newShardService("node-1");
+        GenreShardService node2 = newShardService("node-2");
+        node1.rebalance();
+        node2.rebalance();
+        node1.rebalance();
+
+        // Node 2 has not taken the released genres yet, node 1 must not get them back when committing
+        Set<GameGenre> handedOver = EnumSet.complementOf(EnumSet.copyOf(node1.getOwnedGenres()));
+        assertFalse(handedOver.isEmpty());
+        handedOver.forEach(genre -> assertThrows(IllegalStateException.class, () -> node1.assertOwner(genre)));
+        node1.getOwnedGenres().forEach(node1::assertOwner);
+    }
+
+    @Test
+    void leavingNodeGenresAreTakenOver() {
+        GenreShardService node1 = newShardService("node-1");
+        GenreShardService node2 = newShardService("node-2");
+        LeaseService leaseService2 = (LeaseService) ReflectionTestUtils.getField(node2, "leaseService");
+        node1.rebalance();
+        node2.rebalance();
+        node1.rebalance();
+        node2.rebalance();
+
+        leaseService2.releaseLeases();
+        node1.rebalance();
+
+        assertEquals(EnumSet.allOf(GameGenre.class), node1.getOwnedGenres());
+    }
+
+    private GenreShardService newShardService(String nodeId) {
+        GenreShardService shardService = new GenreShardService(newLeaseService(nodeId));
+        ReflectionTestUtils.setField(shardService, "enabled", true);
+        return shardService;
+    }
+
+    private LeaseService newLeaseService(String nodeId) {
+        LeaseService leaseService = new LeaseService(jobLeaseRepository);
+        ReflectionTestUtils.setField(leaseService, "enabled", true);
+        ReflectionTestUtils.setField(leaseService, "nodeId", nodeId);
+        ReflectionTestUtils.setField(leaseService, "leaseDuration", 15000L);
+        return leaseService;
+    }
+}
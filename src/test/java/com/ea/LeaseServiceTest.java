@@ -0,0 +1,57 @@
+package com.ea;
+
+import com.ea.enums.LeasedJob;
+import com.ea.repositories.discord.JobLeaseRepository;
+import com.ea.services.core.LeaseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeaseServiceTest {
+
+    private JobLeaseRepository jobLeaseRepository;
+    private LeaseService leaseService;
+
+    @BeforeEach
+    void setUp() {
+        jobLeaseRepository = mock(JobLeaseRepository.class);
+        leaseService = new LeaseService(jobLeaseRepository);
+        ReflectionTestUtils.setField(leaseService, "enabled", true);
+        ReflectionTestUtils.setField(leaseService, "nodeId", "node-1");
+        ReflectionTestUtils.setField(leaseService, "leaseDuration", 15000L);
+    }
+
+    @Test
+    void disabledLeasesRunEveryJob() {
+        ReflectionTestUtils.setField(leaseService, "enabled", false);
+
+        assertTrue(leaseService.isLeader(LeasedJob.EVENTS));
+    }
+
+    @Test
+    void onlyAcquiredJobsRunOnThisNode() {
+        when(jobLeaseRepository.tryAcquire(any(), eq("node-1"), any(), any())).thenReturn(0);
+        when(jobLeaseRepository.tryAcquire(eq(LeasedJob.EVENTS.name()), eq("node-1"), any(), any())).thenReturn(1);
+
+        leaseService.renewLeases();
+
+        assertTrue(leaseService.isLeader(LeasedJob.EVENTS));
+        assertFalse(leaseService.isLeader(LeasedJob.STATUS));
+    }
+
+    @Test
+    void lostLeaseFencesTheJob() {
+        when(jobLeaseRepository.tryAcquire(eq(LeasedJob.EVENTS.name()), eq("node-1"), any(), any())).thenReturn(1);
+        when(jobLeaseRepository.renew(eq(LeasedJob.EVENTS.name()), eq("node-1"), any(), any())).thenReturn(0);
+
+        leaseService.renewLeases();
+        assertThrows(IllegalStateException.class, () -> leaseService.assertLeader(LeasedJob.EVENTS));
+        assertFalse(leaseService.isLeader(LeasedJob.EVENTS));
+    }
+}
@@ -0,0 +1,56 @@
+package com.ea;
+
+import com.ea.entities.discord.OutboxEntity;
+import com.ea.enums.OutboxMessageType;
+import com.ea.services.discord.OutboxDispatcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OutboxCoalescingTest {
+
+    @Test
+    void textOfAChannelIsMergedInOrder() {
+        OutboxEntity a1 = text("A", "a1");
+        OutboxEntity b1 = text("B", "b1");
+        OutboxEntity a2 = text("A", "a2");
+
+        List<List<OutboxEntity>> deliveries = OutboxDispatcher.groupDeliveries(List.of(a1, b1, a2));
+
+        assertEquals(List.of(List.of(a1, a2), List.of(b1)), deliveries);
+    }
+
+    @Test
+    void mergedTextStaysWithinTheDiscordLimit() {
+        OutboxEntity first = text("A", "x".repeat(1500));
+        OutboxEntity second = text("A", "y".repeat(499));
+        OutboxEntity third = text("A", "z".repeat(500));
+
+        List<List<OutboxEntity>> deliveries = OutboxDispatcher.groupDeliveries(List.of(first, second, third));
+
+        assertEquals(List.of(List.of(first, second), List.of(third)), deliveries);
+    }
+
+    @Test
+    void imagesAreNotMergedAcross() {
+        OutboxEntity before = text("A", "before");
+        OutboxEntity images = new OutboxEntity();
+        images.setChannelId("A");
+        images.setMessageType(OutboxMessageType.IMAGES);
+        OutboxEntity after = text("A", "after");
+
+        List<List<OutboxEntity>> deliveries = OutboxDispatcher.groupDeliveries(List.of(before, images, after));
+
+        assertEquals(List.of(List.of(before), List.of(images), List.of(after)), deliveries);
+    }
+
+    private OutboxEntity text(String channelId, String content) {
+        OutboxEntity entry = new OutboxEntity();
+        entry.setChannelId(channelId);
+        entry.setMessageType(OutboxMessageType.TEXT);
+        entry.setContent(content);
+        return entry;
+    }
+}
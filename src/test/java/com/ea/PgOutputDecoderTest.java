@@ -0,0 +1,151 @@
+package com.ea;
+
+import com.ea.services.core.PgOutputDecoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PgOutputDecoderTest {
+
+    private PgOutputDecoder decoder;
+    private final List<PgOutputDecoder.RowChange> changes = new ArrayList<>();
+    private final List<Long> commits = new ArrayList<>();
+    private final PgOutputDecoder.Handler handler = new PgOutputDecoder.Handler() {
+        @Override
+        public void onChange(PgOutputDecoder.RowChange change) {
+            changes.add(change);
+        }
+
+        @Override
+        public void onCommit(long endLsn) {
+            commits.add(endLsn);
+        }
+    };
+
+    @BeforeEach
+    void setUp() throws IOException {
+        decoder = new PgOutputDecoder();
+        decoder.decode(relation(16384, "core", "GAME_CONNECTION", "ID", "END_TIME"), handler);
+    }
+
+    @Test
+    void insertIsDecodedWithColumnNames() throws IOException {
+        decoder.decode(insert(16384, "42", null), handler);
+
+        assertEquals(1, changes.size());
+        PgOutputDecoder.RowChange change = changes.get(0);
+        assertEquals("core.game_connection", change.table());
+        assertEquals(PgOutputDecoder.ChangeType.INSERT, change.type());
+        assertEquals("42", change.columns().get("id"));
+        assertNull(change.columns().get("end_time"));
+    }
+
+    @Test
+    void updateWithOldRowKeepsBothValues() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte('U');
+        out.writeInt(16384);
+        out.writeByte('O');
+        writeTuple(out, "42", null);
+        out.writeByte('N');
+        writeTuple(out, "42", "2024-01-01 12:00:00");
+
+        decoder.decode(ByteBuffer.wrap(bytes.toByteArray()), handler);
+
+        assertEquals(PgOutputDecoder.ChangeType.UPDATE, changes.get(0).type());
+        assertEquals(Map.of("id", "42", "end_time", "2024-01-01 12:00:00"), changes.get(0).columns());
+        assertEquals("42", changes.get(0).oldColumns().get("id"));
+        assertTrue(changes.get(0).oldColumns().containsKey("end_time"));
+        assertNull(changes.get(0).oldColumns().get("end_time"));
+    }
+
+    @Test
+    void updateWithoutOldRowHasNoOldValues() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte('U');
+        out.writeInt(16384);
+        out.writeByte('N');
+        writeTuple(out, "42", "2024-01-01 12:00:00");
+
+        decoder.decode(ByteBuffer.wrap(bytes.toByteArray()), handler);
+
+        assertEquals("2024-01-01 12:00:00", changes.get(0).columns().get("end_time"));
+        assertNull(changes.get(0).oldColumns());
+    }
+
+    @Test
+    void commitReportsEndLsn() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte('C');
+        out.writeByte(0);
+        out.writeLong(100L);
+        out.writeLong(120L);
+        out.writeLong(0L);
+
+        decoder.decode(ByteBuffer.wrap(bytes.toByteArray()), handler);
+
+        assertEquals(List.of(120L), commits);
+    }
+
+    private ByteBuffer relation(int oid, String namespace, String name, String... columns) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte('R');
+        out.writeInt(oid);
+        writeString(out, namespace);
+        writeString(out, name);
+        out.writeByte('d');
+        out.writeShort(columns.length);
+        for (String column : columns) {
+            out.writeByte(0);
+            writeString(out, column);
+            out.writeInt(20);
+            out.writeInt(-1);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private ByteBuffer insert(int oid, String... values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte('I');
+        out.writeInt(oid);
+        out.writeByte('N');
+        writeTuple(out, values);
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private void writeTuple(DataOutputStream out, String... values) throws IOException {
+        out.writeShort(values.length);
+        for (String value : values) {
+            if (value == null) {
+                out.writeByte('n');
+            } else {
+                byte[] data = value.getBytes(StandardCharsets.UTF_8);
+                out.writeByte('t');
+                out.writeInt(data.length);
+                out.write(data);
+            }
+        }
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        out.write(value.getBytes(StandardCharsets.UTF_8));
+        out.writeByte(0);
+    }
+}
@@ -0,0 +1,132 @@
+package com.ea;
+
+import com.ea.enums.Game;
+import com.ea.enums.GameGenre;
+import com.ea.model.LiveGame;
+import com.ea.model.LiveGameConnection;
+import com.ea.model.LiveSession;
+import com.ea.repositories.core.GameConnectionRepository;
+import com.ea.repositories.core.GameRepository;
+import com.ea.repositories.core.PersonaConnectionRepository;
+import com.ea.services.core.PresenceState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PresenceStateTest {
+
+    private PersonaConnectionRepository personaConnectionRepository;
+    private GameConnectionRepository gameConnectionRepository;
+    private GameRepository gameRepository;
+    private PresenceState presenceState;
+
+    @BeforeEach
+    void setUp() {
+        personaConnectionRepository = mock(PersonaConnectionRepository.class);
+        gameConnectionRepository = mock(GameConnectionRepository.class);
+        gameRepository = mock(GameRepository.class);
+        presenceState = new PresenceState(personaConnectionRepository, gameConnectionRepository, gameRepository);
+
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(personaConnectionRepository.findLiveSessions()).thenReturn(List.of(
+                new LiveSession(1, "host", "PSP_MOH07", true),
+                new LiveSession(2, "player1", "PSP_MOH07", false),
+                new LiveSession(3, "player2", "PSP_MOH07", false)));
+        when(gameRepository.findLiveGames()).thenReturn(List.of(
+                new LiveGame(10, "game", "PSP_MOH07", 32, true, start)));
+        when(gameConnectionRepository.findLiveGameConnections()).thenReturn(List.of(
+                new LiveGameConnection(100, 10, 1, "host", true, true),
+                new LiveGameConnection(101, 10, 2, "player1", false, false)));
+        presenceState.resync();
+    }
+
+    @Test
+    void resyncServesCountsAndViews() {
+        assertEquals(2, presenceState.countPlayersOnline());
+        assertEquals(1, presenceState.countPlayersInGame());
+        assertEquals(List.of(3L), presenceState.getLobbyPlayers(Game.MEDAL_OF_HONOR_HEROES_PSP).stream().map(LiveSession::getId).toList());
+        assertEquals(1, presenceState.getActiveGames(Game.MEDAL_OF_HONOR_HEROES_PSP).size());
+        assertEquals(2, presenceState.getPlayers(10).size());
+        // FPS hosts are dedicated servers and are not counted
+        assertEquals(2, presenceState.getPlayerCountForGenre(GameGenre.FPS));
+    }
+
+    @Test
+    void playerCountsByGenreMatchPerGenreCounts() {
+        Map<GameGenre, Integer> counts = presenceState.getPlayerCountsByGenre();
+
+        assertEquals(Map.of(GameGenre.FPS, 2), counts);
+        assertEquals(0, presenceState.getPlayerCountForGenre(GameGenre.GOLF));
+    }
+
+    @Test
+    void refreshAppliesDeltas() {
+        when(personaConnectionRepository.findLiveSessionsStartedBetween(any(), any())).thenReturn(List.of(
+                new LiveSession(4, "player3", "PSP_MOH07", false)));
+        when(gameConnectionRepository.findLiveGameConnectionsStartedBetween(any(), any())).thenReturn(List.of(
+                new LiveGameConnection(102, 10, 4, "player3", false, false)));
+        when(personaConnectionRepository.findSessionIdsEndedBetween(any(), any())).thenReturn(List.of(2L));
+        when(gameRepository.findStartedActiveGameIds()).thenReturn(List.of());
+
+        presenceState.refresh();
+
+        assertEquals(2, presenceState.countPlayersOnline());
+        assertEquals(1, presenceState.countPlayersInGame());
+        assertEquals(List.of(100L, 102L), presenceState.getPlayers(10).stream().map(LiveGameConnection::getId).toList());
+        assertTrue(presenceState.getActiveGames(Game.MEDAL_OF_HONOR_HEROES_PSP).stream().noneMatch(LiveGame::isStarted));
+    }
+
+    @Test
+    void versionsOnlyChangeForTouchedGenres() {
+        when(gameRepository.findStartedActiveGameIds()).thenReturn(List.of(10L));
+        long fpsVersion = presenceState.getVersion(GameGenre.FPS);
+        long golfVersion = presenceState.getVersion(GameGenre.GOLF);
+
+        presenceState.refresh();
+        assertEquals(fpsVersion, presenceState.getVersion(GameGenre.FPS));
+
+        when(personaConnectionRepository.findLiveSessionsStartedBetween(any(), any())).thenReturn(List.of(
+                new LiveSession(4, "player3", "PSP_MOH07", false)));
+        presenceState.refresh();
+
+        assertTrue(presenceState.getVersion(GameGenre.FPS) > fpsVersion);
+        assertEquals(golfVersion, presenceState.getVersion(GameGenre.GOLF));
+    }
+
+    @Test
+    void refreshRemovesEndedGamesAndTheirPlayers() {
+        when(gameRepository.findGameIdsEndedBetween(any(), any())).thenReturn(List.of(10L));
+        when(gameConnectionRepository.findGameConnectionIdsEndedBetween(any(), any())).thenReturn(List.of(100L, 101L));
+
+        presenceState.refresh();
+
+        assertTrue(presenceState.getActiveGames(Game.MEDAL_OF_HONOR_HEROES_PSP).isEmpty());
+        assertEquals(0, presenceState.countPlayersInGame());
+        assertEquals(2, presenceState.getLobbyPlayers(Game.MEDAL_OF_HONOR_HEROES_PSP).size());
+    }
+
+    @Test
+    void openConnectionToEndedGameKeepsThePlayerOutOfTheLobby() {
+        when(gameRepository.findGameIdsEndedBetween(any(), any())).thenReturn(List.of(10L));
+
+        presenceState.refresh();
+
+        assertEquals(0, presenceState.countPlayersInGame());
+        assertEquals(List.of(3L), presenceState.getLobbyPlayers(Game.MEDAL_OF_HONOR_HEROES_PSP).stream().map(LiveSession::getId).toList());
+
+        when(gameRepository.findGameIdsEndedBetween(any(), any())).thenReturn(List.of());
+        when(gameConnectionRepository.findGameConnectionIdsEndedBetween(any(), any())).thenReturn(List.of(101L));
+        presenceState.refresh();
+
+        assertEquals(List.of(2L, 3L), presenceState.getLobbyPlayers(Game.MEDAL_OF_HONOR_HEROES_PSP).stream().map(LiveSession::getId).toList());
+    }
+}
@@ -0,0 +1,63 @@
+package com.ea;
+
+import com.ea.entities.core.GameEntity;
+import com.ea.entities.discord.ScoreboardMissEntity;
+import com.ea.repositories.discord.ScoreboardMissRepository;
+import com.ea.services.core.ScoreboardAttempts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ScoreboardAttemptsTest {
+
+    private ScoreboardMissRepository scoreboardMissRepository;
+    private ScoreboardAttempts scoreboardAttempts;
+
+    @BeforeEach
+    void setUp() {
+        scoreboardMissRepository = mock(ScoreboardMissRepository.class);
+        scoreboardAttempts = new ScoreboardAttempts(scoreboardMissRepository);
+        ReflectionTestUtils.setField(scoreboardAttempts, "maxAttempts", 3);
+    }
+
+    @Test
+    void gameIsGivenUpAfterTheLastMiss() {
+        GameEntity slow = game(1);
+        GameEntity late = game(2);
+        when(scoreboardMissRepository.findAllById(anyCollection())).thenReturn(List.of(miss(1, 2), miss(2, 1)));
+
+        assertEquals(List.of(late), scoreboardAttempts.recordMisses(List.of(slow, late)));
+    }
+
+    @Test
+    void givenUpGamesAreNotRenderedAgain() {
+        GameEntity slow = game(1);
+        GameEntity other = game(2);
+        when(scoreboardMissRepository.findByGameIdInAndMissesGreaterThanEqual(anyCollection(), anyInt())).thenReturn(List.of(miss(1, 3)));
+
+        assertEquals(List.of(other), scoreboardAttempts.withoutGivenUp(List.of(slow, other)));
+    }
+
+    private GameEntity game(long id) {
+        GameEntity game = new GameEntity();
+        game.setId(id);
+        return game;
+    }
+
+    private ScoreboardMissEntity miss(long gameId, int misses) {
+        ScoreboardMissEntity miss = new ScoreboardMissEntity();
+        miss.setGameId(gameId);
+        miss.setMisses(misses);
+        miss.setLastMissAt(LocalDateTime.now());
+        return miss;
+    }
+}
@@ -0,0 +1,39 @@
+package com.ea;
+
+import com.ea.utils.StatusLayoutUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatusLayoutTest {
+
+    @Test
+    void shortContentIsASinglePage() {
+        assertEquals(List.of("## Game\n\nnobody\n"), StatusLayoutUtils.paginate("## Game\n\nnobody\n", 100));
+        assertEquals(List.of(""), StatusLayoutUtils.paginate("", 100));
+    }
+
+    @Test
+    void sectionsAreKeptTogether() {
+        String first = "## First\n" + "a".repeat(30) + "\n";
+        String second = "## Second\n" + "b".repeat(30) + "\n";
+
+        List<String> pages = StatusLayoutUtils.paginate(first + second, 60);
+
+        assertEquals(List.of(first, second), pages);
+    }
+
+    @Test
+    void longSectionsAreSplitBetweenLines() {
+        String line = "c".repeat(20) + "\n";
+        String section = "## Busy\n" + line.repeat(10);
+
+        List<String> pages = StatusLayoutUtils.paginate(section, 50);
+
+        assertEquals(section, String.join("", pages));
+        pages.forEach(page -> assertTrue(page.length() <= 50));
+    }
+}